@@ -0,0 +1,62 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures operations when every key has the same hash code. Key counts are small
+ * because chained tables degrade to a linear scan here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollidingKeysBenchmark {
+    private static final int ACCESS_ORDER_LENGTH = 1 << 16;
+
+    @Param({"100", "1000", "10000"})
+    private int keysCount;
+
+    @Param({"CHAINING", "OPEN_ADDRESSING", "HASH_MAP"})
+    private Target.Implementation implementation;
+
+    private String[] keys;
+    private int[] order;
+    private int cursor;
+    private Target target;
+
+    @Setup
+    public void setUp() {
+        keys = Workloads.collidingKeys(keysCount);
+        order = Workloads.accessOrder(Workloads.Distribution.UNIFORM, keysCount, ACCESS_ORDER_LENGTH, 42);
+        target = Target.create(implementation);
+        for (var key : keys) {
+            target.put(key, key);
+        }
+    }
+
+    private String nextKey() {
+        return keys[order[cursor++ & (ACCESS_ORDER_LENGTH - 1)]];
+    }
+
+    @Benchmark
+    public String get() {
+        return target.get(nextKey());
+    }
+
+    @Benchmark
+    public String put() {
+        var key = nextKey();
+        return target.put(key, key);
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        var key = nextKey();
+        target.remove(key);
+        return target.put(key, key);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Compares {@link ConcurrentHashTable} with a {@link HashTable} guarded by one lock under a mixed load */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ConcurrentHashTableBenchmark {
+    @Param({"100000"})
+    private int keysCount;
+
+    @Param({"0", "10", "50"})
+    private int writesPercent;
+
+    private String[] keys;
+    private ConcurrentHashTable concurrent;
+    private HashTable synchronizedTable;
+
+    @Setup
+    public void setUp() {
+        keys = Workloads.uniqueKeys(keysCount, "key-");
+        concurrent = new ConcurrentHashTable();
+        synchronizedTable = new HashTable();
+        for (var key : keys) {
+            concurrent.put(key, key);
+            synchronizedTable.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public String concurrent() {
+        var random = ThreadLocalRandom.current();
+        var key = keys[random.nextInt(keysCount)];
+        if (random.nextInt(100) < writesPercent) {
+            return concurrent.put(key, key);
+        }
+        return concurrent.get(key);
+    }
+
+    @Benchmark
+    public String synchronizedWrapper() {
+        var random = ThreadLocalRandom.current();
+        var key = keys[random.nextInt(keysCount)];
+        synchronized (synchronizedTable) {
+            if (random.nextInt(100) < writesPercent) {
+                return synchronizedTable.put(key, key);
+            }
+            return synchronizedTable.get(key);
+        }
+    }
+}
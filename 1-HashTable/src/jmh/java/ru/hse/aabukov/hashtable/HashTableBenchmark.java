@@ -0,0 +1,77 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures throughput of single-threaded operations on a populated table */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashTableBenchmark {
+    private static final int ACCESS_ORDER_LENGTH = 1 << 16;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int keysCount;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    private Workloads.Distribution distribution;
+
+    @Param({"CHAINING", "INCREMENTAL_CHAINING", "OPEN_ADDRESSING", "HASH_MAP"})
+    private Target.Implementation implementation;
+
+    @Param({"0.5", "0.75", "0.9"})
+    private float loadFactor;
+
+    private String[] keys;
+    private String[] missingKeys;
+    private int[] order;
+    private int cursor;
+    private Target target;
+
+    @Setup
+    public void setUp() {
+        keys = Workloads.uniqueKeys(keysCount, "key-");
+        missingKeys = Workloads.uniqueKeys(ACCESS_ORDER_LENGTH, "missing-");
+        order = Workloads.accessOrder(distribution, keysCount, ACCESS_ORDER_LENGTH, 42);
+        target = Target.create(implementation, 0, loadFactor);
+        for (var key : keys) {
+            target.put(key, key);
+        }
+    }
+
+    private String nextKey() {
+        return keys[order[cursor++ & (ACCESS_ORDER_LENGTH - 1)]];
+    }
+
+    @Benchmark
+    public String get() {
+        return target.get(nextKey());
+    }
+
+    @Benchmark
+    public String getMissing() {
+        return target.get(missingKeys[cursor++ & (ACCESS_ORDER_LENGTH - 1)]);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return target.contains(nextKey());
+    }
+
+    @Benchmark
+    public String put() {
+        var key = nextKey();
+        return target.put(key, key);
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        var key = nextKey();
+        target.remove(key);
+        return target.put(key, key);
+    }
+}
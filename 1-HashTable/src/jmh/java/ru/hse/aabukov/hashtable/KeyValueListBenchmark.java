@@ -0,0 +1,57 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures operations on a single bucket of the given length */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyValueListBenchmark {
+    @Param({"1", "8", "64"})
+    private int length;
+
+    private String[] keys;
+    private int cursor;
+    private KeyValueList list;
+
+    @Setup
+    public void setUp() {
+        keys = Workloads.uniqueKeys(length, "key-");
+        list = new KeyValueList();
+        for (var key : keys) {
+            list.put(key, key);
+        }
+    }
+
+    private String nextKey() {
+        return keys[cursor++ % length];
+    }
+
+    @Benchmark
+    public String get() {
+        return list.get(nextKey());
+    }
+
+    @Benchmark
+    public boolean containsMissing() {
+        return list.contains("missing");
+    }
+
+    @Benchmark
+    public String put() {
+        var key = nextKey();
+        return list.put(key, key);
+    }
+
+    @Benchmark
+    public String removeAndPut() {
+        var key = nextKey();
+        list.remove(key);
+        return list.put(key, key);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures the time to fill an empty table, including all resizes */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PopulateBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int keysCount;
+
+    @Param({"CHAINING", "INCREMENTAL_CHAINING", "OPEN_ADDRESSING", "HASH_MAP"})
+    private Target.Implementation implementation;
+
+    @Param({"0.5", "0.75", "0.9"})
+    private float loadFactor;
+
+    @Param({"false", "true"})
+    private boolean presized;
+
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        keys = Workloads.uniqueKeys(keysCount, "key-");
+    }
+
+    @Benchmark
+    public Target populate() {
+        var target = Target.create(implementation, presized ? keysCount : 0, loadFactor);
+        for (var key : keys) {
+            target.put(key, key);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.hse.aabukov.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** Compares loading a table from a snapshot with rebuilding it from a text source */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({"100000", "1000000"})
+    private int keysCount;
+
+    @Param({"CHAINING", "OPEN_ADDRESSING"})
+    private HashTable.Storage storage;
+
+    private byte[] snapshot;
+    private byte[] text;
+
+    @Setup
+    public void setUp() throws IOException {
+        var keys = Workloads.uniqueKeys(keysCount, "key-");
+        var table = new HashTable(storage);
+        var textBuilder = new StringBuilder();
+        for (var key : keys) {
+            table.put(key, "value-" + key);
+            textBuilder.append(key).append('\t').append("value-").append(key).append('\n');
+        }
+        var output = new ByteArrayOutputStream();
+        table.serialize(output);
+        snapshot = output.toByteArray();
+        text = textBuilder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public HashTable deserialize() throws IOException {
+        var table = new HashTable(storage);
+        table.deserialize(new BufferedInputStream(new ByteArrayInputStream(snapshot)));
+        return table;
+    }
+
+    @Benchmark
+    public HashTable putFromText() throws IOException {
+        var table = new HashTable(storage);
+        var reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(text), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int separator = line.indexOf('\t');
+            table.put(line.substring(0, separator), line.substring(separator + 1));
+        }
+        return table;
+    }
+}
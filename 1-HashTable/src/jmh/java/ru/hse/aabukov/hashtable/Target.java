@@ -0,0 +1,119 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+
+/** A common interface of the benchmarked tables */
+public abstract class Target {
+
+    /** A table to benchmark */
+    public enum Implementation {
+        CHAINING,
+        INCREMENTAL_CHAINING,
+        OPEN_ADDRESSING,
+        CONCURRENT,
+        HASH_MAP
+    }
+
+    abstract boolean contains(@NotNull String key);
+
+    abstract String get(@NotNull String key);
+
+    abstract String put(@NotNull String key, String value);
+
+    abstract String remove(@NotNull String key);
+
+    static @NotNull Target create(@NotNull Implementation implementation) {
+        return create(implementation, 0, 0.75f);
+    }
+
+    /** Creates a table presized for the given number of elements, the load factor is ignored by concurrent one */
+    static @NotNull Target create(@NotNull Implementation implementation, int expectedSize, float loadFactor) {
+        switch (implementation) {
+            case CHAINING:
+                return of(new HashTable(HashTable.Storage.CHAINING, expectedSize, loadFactor));
+            case INCREMENTAL_CHAINING:
+                return of(new HashTable(HashTable.Storage.INCREMENTAL_CHAINING, expectedSize, loadFactor));
+            case OPEN_ADDRESSING:
+                return of(new HashTable(HashTable.Storage.OPEN_ADDRESSING, expectedSize, loadFactor));
+            case CONCURRENT:
+                return of(new ConcurrentHashTable());
+            case HASH_MAP:
+                return of(new HashMap<>((int) Math.ceil(expectedSize / loadFactor), loadFactor));
+        }
+        throw new AssertionError("Unknown implementation: " + implementation);
+    }
+
+    private static @NotNull Target of(@NotNull HashTable table) {
+        return new Target() {
+            @Override
+            boolean contains(@NotNull String key) {
+                return table.contains(key);
+            }
+
+            @Override
+            String get(@NotNull String key) {
+                return table.get(key);
+            }
+
+            @Override
+            String put(@NotNull String key, String value) {
+                return table.put(key, value);
+            }
+
+            @Override
+            String remove(@NotNull String key) {
+                return table.remove(key);
+            }
+        };
+    }
+
+    private static @NotNull Target of(@NotNull ConcurrentHashTable table) {
+        return new Target() {
+            @Override
+            boolean contains(@NotNull String key) {
+                return table.contains(key);
+            }
+
+            @Override
+            String get(@NotNull String key) {
+                return table.get(key);
+            }
+
+            @Override
+            String put(@NotNull String key, String value) {
+                return table.put(key, value);
+            }
+
+            @Override
+            String remove(@NotNull String key) {
+                return table.remove(key);
+            }
+        };
+    }
+
+    private static @NotNull Target of(@NotNull HashMap<String, String> map) {
+        return new Target() {
+            @Override
+            boolean contains(@NotNull String key) {
+                return map.containsKey(key);
+            }
+
+            @Override
+            String get(@NotNull String key) {
+                return map.get(key);
+            }
+
+            @Override
+            String put(@NotNull String key, String value) {
+                return map.put(key, value);
+            }
+
+            @Override
+            String remove(@NotNull String key) {
+                return map.remove(key);
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/** Generates keys and access patterns for benchmarks */
+public class Workloads {
+    private static final double ZIPFIAN_CONSTANT = 0.99;
+
+    /** A way to choose which keys are accessed */
+    public enum Distribution {
+        /** Every key is accessed with the same probability */
+        UNIFORM,
+        /** A few keys are accessed much more often than the others */
+        ZIPFIAN
+    }
+
+    private Workloads() {
+    }
+
+    /** Returns distinct keys that look like identifiers */
+    static @NotNull String[] uniqueKeys(int count, @NotNull String prefix) {
+        var keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = prefix + i;
+        }
+        return keys;
+    }
+
+    /**
+     * Returns distinct keys with the same hash code. Every key is a sequence of "Aa" and "BB" blocks,
+     * and these two blocks have equal hash codes.
+     */
+    static @NotNull String[] collidingKeys(int count) {
+        int length = 1;
+        while ((1L << length) < count) {
+            length++;
+        }
+        var keys = new String[count];
+        var builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            for (int bit = 0; bit < length; bit++) {
+                builder.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = builder.toString();
+        }
+        return keys;
+    }
+
+    /** Returns indices of keys in the order they are accessed */
+    static @NotNull int[] accessOrder(@NotNull Distribution distribution, int keysCount, int length, long seed) {
+        var random = new Random(seed);
+        var order = new int[length];
+        if (distribution == Distribution.UNIFORM) {
+            for (int i = 0; i < length; i++) {
+                order[i] = random.nextInt(keysCount);
+            }
+            return order;
+        }
+        // Gray et al., "Quickly generating billion-record synthetic databases"
+        double zetan = 0;
+        for (int i = 1; i <= keysCount; i++) {
+            zetan += 1 / Math.pow(i, ZIPFIAN_CONSTANT);
+        }
+        double zeta2 = 1 + 1 / Math.pow(2, ZIPFIAN_CONSTANT);
+        double alpha = 1 / (1 - ZIPFIAN_CONSTANT);
+        double eta = (1 - Math.pow(2.0 / keysCount, 1 - ZIPFIAN_CONSTANT)) / (1 - zeta2 / zetan);
+        for (int i = 0; i < length; i++) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            int rank;
+            if (uz < 1) {
+                rank = 0;
+            } else if (uz < zeta2) {
+                rank = 1;
+            } else {
+                rank = (int) (keysCount * Math.pow(eta * u - eta + 1, alpha));
+            }
+            order[i] = Math.min(rank, keysCount - 1);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,212 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe associative array for pairs of strings. Reads never take a lock: every bucket is an immutable
+ * chain which is replaced as a whole. Modifications lock one of a fixed number of stripes, and resize locks
+ * all of them while readers keep using the old bucket array until the new one is published.
+ */
+public class ConcurrentHashTable {
+    private static final int STRIPES_NUMBER = 16;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final @NotNull ReentrantLock[] locks = new ReentrantLock[STRIPES_NUMBER];
+    private final @NotNull AtomicInteger keysCount = new AtomicInteger();
+    private volatile @NotNull AtomicReferenceArray<Node> buckets = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /** Creates an empty hash table */
+    public ConcurrentHashTable() {
+        Arrays.setAll(locks, i -> new ReentrantLock());
+    }
+
+    private static int hash(@NotNull String key) {
+        return HashTable.spread(key.hashCode());
+    }
+
+    private static @Nullable Node find(@Nullable Node node, @NotNull String key, int hash) {
+        while (node != null && (node.hash != hash || !key.equals(node.key))) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a chain with the same elements in which the given node is replaced with the given tail.
+     * Nodes before the target are copied, the order of elements is not preserved.
+     */
+    private static @Nullable Node replace(@NotNull Node chain, @NotNull Node target, @Nullable Node tail) {
+        var result = tail;
+        for (var node = chain; node != target; node = node.next) {
+            result = new Node(node.key, node.hash, node.value, result);
+        }
+        return result;
+    }
+
+    private void lockAll() {
+        for (var lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Locks the stripe of the given hash and returns the bucket array that is guarded by it.
+     * The stripe of a bucket does not depend on the capacity because every capacity is a multiple of
+     * the stripes number.
+     */
+    private @NotNull AtomicReferenceArray<Node> lockStripe(int hash) {
+        var lock = locks[hash & (STRIPES_NUMBER - 1)];
+        while (true) {
+            var current = buckets;
+            lock.lock();
+            if (current == buckets) {
+                return current;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void unlockStripe(int hash) {
+        locks[hash & (STRIPES_NUMBER - 1)].unlock();
+    }
+
+    private void expand(@NotNull AtomicReferenceArray<Node> expected) {
+        lockAll();
+        try {
+            if (buckets != expected) {
+                return;
+            }
+            var expanded = new AtomicReferenceArray<Node>(expected.length() * 2);
+            int mask = expanded.length() - 1;
+            for (int i = 0; i < expected.length(); i++) {
+                for (var node = expected.get(i); node != null; node = node.next) {
+                    int position = node.hash & mask;
+                    expanded.set(position, new Node(node.key, node.hash, node.value, expanded.get(position)));
+                }
+            }
+            buckets = expanded;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /** Returns the number of elements */
+    public int size() {
+        return keysCount.get();
+    }
+
+    /**
+     * Checks whether the hash table contains an element with given key
+     *
+     * @param key the key of element to check
+     */
+    public boolean contains(@NotNull String key) {
+        var current = buckets;
+        int hash = hash(key);
+        return find(current.get(hash & (current.length() - 1)), key, hash) != null;
+    }
+
+    /**
+     * Returns an element with given key
+     *
+     * @param key the key of an element to find
+     * @return An element if it is in the hash table, null otherwise
+     */
+    public String get(@NotNull String key) {
+        var current = buckets;
+        int hash = hash(key);
+        var node = find(current.get(hash & (current.length() - 1)), key, hash);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Puts the element with given key and returns a previous element
+     *
+     * @param key   the key ot the element
+     * @param value the element to put
+     * @return A previous element if the table contained an element with given key, null otherwise
+     */
+    public String put(@NotNull String key, String value) {
+        int hash = hash(key);
+        var current = lockStripe(hash);
+        int count;
+        try {
+            int position = hash & (current.length() - 1);
+            var chain = current.get(position);
+            var node = find(chain, key, hash);
+            if (node != null) {
+                current.set(position, replace(chain, node, new Node(key, hash, value, node.next)));
+                return node.value;
+            }
+            current.set(position, new Node(key, hash, value, chain));
+            count = keysCount.incrementAndGet();
+        } finally {
+            unlockStripe(hash);
+        }
+        if (count > current.length() * LOAD_FACTOR) {
+            expand(current);
+        }
+        return null;
+    }
+
+    /**
+     * Removes an element with given key
+     *
+     * @param key the key of an element to remove
+     * @return An element with given key if an element with this key contained in the table, null otherwise
+     */
+    public String remove(@NotNull String key) {
+        int hash = hash(key);
+        var current = lockStripe(hash);
+        try {
+            int position = hash & (current.length() - 1);
+            var chain = current.get(position);
+            var node = find(chain, key, hash);
+            if (node == null) {
+                return null;
+            }
+            current.set(position, replace(chain, node, node.next));
+            keysCount.decrementAndGet();
+            return node.value;
+        } finally {
+            unlockStripe(hash);
+        }
+    }
+
+    /** Removes all elements and frees an allocated memory */
+    public void clear() {
+        lockAll();
+        try {
+            buckets = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            keysCount.set(0);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private static class Node {
+        private final @NotNull String key;
+        private final int hash;
+        private final String value;
+        private final @Nullable Node next;
+
+        Node(@NotNull String key, int hash, String value, @Nullable Node next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -1,49 +1,212 @@
 package ru.hse.aabukov.hashtable;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 
 /** Implements an associative array interface for pairs of strings using hash table */
 public class HashTable {
-    private final int INITIAL_CAPACITY = 5;
+    private static final int MINIMAL_CAPACITY = 8;
+    private static final int MAXIMAL_CAPACITY = 1 << 30;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    private static final int SNAPSHOT_MAGIC = 0x48545331;
+    /** A length of a string in a snapshot which stands for a null value */
+    private static final int NULL_LENGTH = -1;
+    /** The number of elements of a snapshot that storage is allocated for before they are read */
+    private static final int PREALLOCATED_SNAPSHOT_SIZE = 1 << 16;
+    private final int MIGRATION_STEP = 2;
     private KeyValueList[] buckets;
+    private int initialCapacity;
     private int capacity;
+    private float loadFactor;
+    private int threshold;
     private int keysCount;
+    private @Nullable OpenAddressingTable openAddressing;
+    private boolean incremental;
+    private @Nullable KeyValueList[] oldBuckets;
+    private int migrationPosition;
+    private int modificationsCount;
+    private volatile @Nullable Counters counters;
+
+    /** A way the hash table keeps its elements */
+    public enum Storage {
+        /** Every bucket is a linked list of elements */
+        CHAINING,
+        /**
+         * Every bucket is a linked list of elements. The table is resized gradually: old and new buckets
+         * are kept together and every modification moves a few buckets from the old ones
+         */
+        INCREMENTAL_CHAINING,
+        /** Elements are kept in flat arrays and collisions are resolved by linear probing */
+        OPEN_ADDRESSING
+    }
 
     /** Creates an empty hash table */
     public HashTable() {
-        buckets = new KeyValueList[INITIAL_CAPACITY];
-        capacity = INITIAL_CAPACITY;
+        this(Storage.CHAINING);
+    }
+
+    /**
+     * Creates an empty hash table with given storage
+     *
+     * @param storage the way to keep elements
+     */
+    public HashTable(@NotNull Storage storage) {
+        this(storage, 0, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates an empty hash table that holds the given number of elements without resizing
+     *
+     * @param expectedSize the number of elements the table is going to contain
+     * @param loadFactor   the maximal ratio of the number of elements to the capacity
+     * @throws IllegalArgumentException if the size is negative or the load factor is not positive
+     */
+    public HashTable(int expectedSize, float loadFactor) {
+        this(Storage.CHAINING, expectedSize, loadFactor);
+    }
+
+    /**
+     * Creates an empty hash table with given storage that holds the given number of elements without resizing
+     *
+     * @param storage      the way to keep elements
+     * @param expectedSize the number of elements the table is going to contain
+     * @param loadFactor   the maximal ratio of the number of elements to the capacity,
+     *                     it must be less than 1 for open addressing
+     * @throws IllegalArgumentException if the size is negative or the load factor is not valid for the storage
+     */
+    public HashTable(@NotNull Storage storage, int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Negative expected size: " + expectedSize);
+        }
+        if (!(loadFactor > 0) || Float.isInfinite(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        if (storage == Storage.OPEN_ADDRESSING) {
+            if (loadFactor >= 1) {
+                throw new IllegalArgumentException("Load factor of open addressing must be less than 1: " + loadFactor);
+            }
+            openAddressing = new OpenAddressingTable(capacityFor(expectedSize, loadFactor), loadFactor);
+            return;
+        }
+        incremental = storage == Storage.INCREMENTAL_CHAINING;
+        this.loadFactor = loadFactor;
+        initialCapacity = capacityFor(expectedSize, loadFactor);
+        allocate(initialCapacity);
+    }
+
+    /** Returns the smallest power of two capacity that holds the given number of elements */
+    static int capacityFor(int expectedSize, float loadFactor) {
+        double needed = Math.ceil(expectedSize / (double) loadFactor);
+        int capacity = MINIMAL_CAPACITY;
+        while (capacity < needed && capacity < MAXIMAL_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Mixes the higher bits of the hash code into the lower ones which are used for indexing */
+    static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+
+    private void allocate(int newCapacity) {
+        setBuckets(newBuckets(newCapacity));
+    }
+
+    private static @NotNull KeyValueList[] newBuckets(int capacity) {
+        var buckets = new KeyValueList[capacity];
         Arrays.setAll(buckets, i -> new KeyValueList());
+        return buckets;
+    }
+
+    private void setBuckets(@NotNull KeyValueList[] newBuckets) {
+        buckets = newBuckets;
+        capacity = newBuckets.length;
+        threshold = capacity >= MAXIMAL_CAPACITY ? Integer.MAX_VALUE : (int) (capacity * loadFactor);
     }
 
     private int getPosition(@NotNull String key) {
-        return Math.abs(key.hashCode()) % capacity;
+        return getPosition(key, capacity);
     }
 
-    private void expand() {
-        String[] keysBuffer = new String[keysCount];
-        String[] valuesBuffer = new String[keysCount];
-        int pointer = 0;
-        for (var bucket : buckets) {
+    private int getPosition(@NotNull String key, int capacity) {
+        return spread(key.hashCode()) & (capacity - 1);
+    }
+
+    private @Nullable KeyValueList getOldBucket(@NotNull String key) {
+        if (oldBuckets == null) {
+            return null;
+        }
+        return oldBuckets[getPosition(key, oldBuckets.length)];
+    }
+
+    private void startMigration(int newCapacity) {
+        if (oldBuckets != null) {
+            migrate(oldBuckets.length);
+        }
+        oldBuckets = buckets;
+        migrationPosition = 0;
+        allocate(newCapacity);
+    }
+
+    /** Relinks the nodes of the given number of old buckets into the new ones */
+    private void migrate(int bucketsNumber) {
+        if (oldBuckets == null) {
+            return;
+        }
+        for (; bucketsNumber > 0 && migrationPosition < oldBuckets.length; bucketsNumber--) {
+            var bucket = oldBuckets[migrationPosition++];
             while (!bucket.empty()) {
-                keysBuffer[pointer] = bucket.frontKey();
-                valuesBuffer[pointer++] = bucket.frontValue();
-                bucket.popFront();
+                bucket.moveFrontTo(buckets[getPosition(bucket.frontKey())]);
             }
         }
-        buckets = new KeyValueList[capacity *= 2];
-        Arrays.setAll(buckets, i -> new KeyValueList());
-        keysCount = 0;
-        for (int i = 0; i < keysBuffer.length; i++) {
-            put(keysBuffer[i], valuesBuffer[i]);
+        if (migrationPosition == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
+
+    private void expand() {
+        if (capacity >= MAXIMAL_CAPACITY) {
+            return;
+        }
+        startMigration(capacity * 2);
+        if (!incremental) {
+            migrate(oldBuckets.length);
         }
     }
 
+    private int currentCapacity() {
+        return openAddressing != null ? openAddressing.capacity() : capacity;
+    }
+
+    private int slotsCount() {
+        if (openAddressing != null) {
+            return openAddressing.capacity();
+        }
+        return (oldBuckets == null ? 0 : oldBuckets.length) + buckets.length;
+    }
+
+    private @NotNull KeyValueList bucketAt(int slot) {
+        if (oldBuckets == null) {
+            return buckets[slot];
+        }
+        return slot < oldBuckets.length ? oldBuckets[slot] : buckets[slot - oldBuckets.length];
+    }
+
     /** Returns the number of element */
     public int size() {
+        if (openAddressing != null) {
+            return openAddressing.size();
+        }
         return keysCount;
     }
 
@@ -53,7 +216,23 @@ public class HashTable {
      * @param key the key of element to check
      */
     public boolean contains(@NotNull String key) {
-        return buckets[getPosition(key)].contains(key);
+        boolean found = containsKey(key);
+        var current = counters;
+        if (current != null) {
+            current.recordLookup(found);
+        }
+        return found;
+    }
+
+    private boolean containsKey(@NotNull String key) {
+        if (openAddressing != null) {
+            return openAddressing.contains(key);
+        }
+        if (buckets[getPosition(key)].contains(key)) {
+            return true;
+        }
+        var oldBucket = getOldBucket(key);
+        return oldBucket != null && oldBucket.contains(key);
     }
 
     /**
@@ -63,7 +242,24 @@ public class HashTable {
      * @return An element if it is in the hash table, null otherwise
      */
     public String get(@NotNull String key) {
-        return buckets[getPosition(key)].get(key);
+        var value = find(key);
+        var current = counters;
+        if (current != null) {
+            current.recordLookup(value != null);
+        }
+        return value;
+    }
+
+    private String find(@NotNull String key) {
+        if (openAddressing != null) {
+            return openAddressing.get(key);
+        }
+        var value = buckets[getPosition(key)].get(key);
+        var oldBucket = getOldBucket(key);
+        if (value == null && oldBucket != null) {
+            return oldBucket.get(key);
+        }
+        return value;
     }
 
     /**
@@ -74,11 +270,35 @@ public class HashTable {
      * @return A previous element if the table contained an element with given key, null otherwise
      */
     public String put(@NotNull String key, String value) {
-        var previousValue = buckets[getPosition(key)].put(key, value);
+        modificationsCount++;
+        var current = counters;
+        if (current == null) {
+            return putValue(key, value);
+        }
+        int previousCapacity = currentCapacity();
+        long start = System.nanoTime();
+        var previousValue = putValue(key, value);
+        if (currentCapacity() != previousCapacity) {
+            current.recordResize(System.nanoTime() - start);
+        }
+        return previousValue;
+    }
+
+    private String putValue(@NotNull String key, String value) {
+        if (openAddressing != null) {
+            return openAddressing.put(key, value);
+        }
+        migrate(MIGRATION_STEP);
+        var oldBucket = getOldBucket(key);
+        var previousValue = oldBucket == null ? null : oldBucket.remove(key);
+        var currentValue = buckets[getPosition(key)].put(key, value);
+        if (currentValue != null) {
+            previousValue = currentValue;
+        }
         if (previousValue == null) {
             keysCount++;
         }
-        if (keysCount >= capacity) {
+        if (keysCount > threshold) {
             expand();
         }
         return previousValue;
@@ -91,7 +311,16 @@ public class HashTable {
      * @return An element with given key if an element with this key contained in the table, null otherwise
      */
     public String remove(@NotNull String key) {
+        modificationsCount++;
+        if (openAddressing != null) {
+            return openAddressing.remove(key);
+        }
+        migrate(MIGRATION_STEP);
         var valueByKey = buckets[getPosition(key)].remove(key);
+        var oldBucket = getOldBucket(key);
+        if (valueByKey == null && oldBucket != null) {
+            valueByKey = oldBucket.remove(key);
+        }
         if (valueByKey != null) {
             keysCount--;
         }
@@ -100,9 +329,391 @@ public class HashTable {
 
     /** Removes all elements and frees an allocated memory */
     public void clear() {
-        capacity = INITIAL_CAPACITY;
-        buckets = new KeyValueList[capacity];
-        Arrays.setAll(buckets, i -> new KeyValueList());
+        modificationsCount++;
+        if (openAddressing != null) {
+            openAddressing.clear();
+            return;
+        }
+        oldBuckets = null;
+        allocate(initialCapacity);
         keysCount = 0;
     }
+
+    /**
+     * Turns the statistics mode on or off. While it is on, lookups and resizes are counted.
+     * Turning it on resets the counters. The mode may be switched from any thread.
+     *
+     * @param enabled whether to count operations
+     */
+    public void setStatisticsEnabled(boolean enabled) {
+        counters = enabled ? new Counters() : null;
+    }
+
+    /** Checks whether lookups and resizes are counted */
+    public boolean isStatisticsEnabled() {
+        return counters != null;
+    }
+
+    /**
+     * Returns a snapshot of the statistics. The counters are zero if the statistics mode is off,
+     * while the bucket lengths are computed by scanning the table in any mode.
+     * Chain lengths are probe lengths for open addressing.
+     * The scan is exact on the thread that modifies the table. It may be run by another thread,
+     * but then the histogram is approximate: buckets may be seen partly moved by a concurrent resize.
+     */
+    public @NotNull HashTableStatistics statistics() {
+        return statistics(true);
+    }
+
+    /**
+     * Returns a snapshot of the statistics, the histogram is empty if the buckets are not scanned.
+     * It may be called from any thread: the counters are read atomically while the size,
+     * the capacity and the histogram may be stale or approximate.
+     */
+    @NotNull HashTableStatistics statistics(boolean scanBuckets) {
+        long[] histogram;
+        var currentOpenAddressing = openAddressing;
+        if (!scanBuckets) {
+            histogram = new long[0];
+        } else if (currentOpenAddressing != null) {
+            histogram = currentOpenAddressing.probeLengthHistogram();
+        } else {
+            histogram = chainLengthHistogram();
+        }
+        var current = counters;
+        if (current == null) {
+            current = new Counters();
+        }
+        return new HashTableStatistics(size(), currentCapacity(), current.hits.sum(), current.misses.sum(),
+                current.resizes.sum(), current.resizeNanos.sum(), current.maxResizeNanos.get(), histogram);
+    }
+
+    /**
+     * Counts buckets of every length. Each array of buckets is read once and a bucket that is not seen
+     * yet is skipped, so a concurrent resize makes the result approximate but does not break the scan
+     */
+    private @NotNull long[] chainLengthHistogram() {
+        var currentOldBuckets = oldBuckets;
+        var lengths = countLengths(buckets, new long[1]);
+        return currentOldBuckets == null ? lengths : countLengths(currentOldBuckets, lengths);
+    }
+
+    /** Adds the buckets of the array to the histogram and returns it, grown if a bucket is longer */
+    private static @NotNull long[] countLengths(@NotNull KeyValueList[] bucketArray, @NotNull long[] lengths) {
+        for (var bucket : bucketArray) {
+            int length = bucket == null ? 0 : bucket.size();
+            if (length >= lengths.length) {
+                lengths = Arrays.copyOf(lengths, length + 1);
+            }
+            lengths[length]++;
+        }
+        return lengths;
+    }
+
+    /**
+     * Puts all elements of another table. The table is resized at most once before the elements are put
+     *
+     * @param other the table to copy elements from
+     */
+    public void putAll(@NotNull HashTable other) {
+        if (other == this) {
+            return;
+        }
+        var current = counters;
+        int previousCapacity = currentCapacity();
+        long start = System.nanoTime();
+        int expectedSize = size() + other.size();
+        if (openAddressing != null) {
+            openAddressing.ensureCapacity(expectedSize);
+        } else {
+            int newCapacity = capacityFor(expectedSize, loadFactor);
+            if (newCapacity > capacity) {
+                startMigration(newCapacity);
+                migrate(oldBuckets.length);
+            }
+        }
+        if (current != null && currentCapacity() != previousCapacity) {
+            current.recordResize(System.nanoTime() - start);
+        }
+        other.forEach(this::put);
+    }
+
+    /**
+     * Performs the given action for each element of the table in an unspecified order
+     *
+     * @param action the action that takes a key and a value
+     * @throws ConcurrentModificationException if the table is modified by the action
+     */
+    public void forEach(@NotNull BiConsumer<String, String> action) {
+        int expectedModificationsCount = modificationsCount;
+        if (openAddressing != null) {
+            openAddressing.forEach(action);
+        } else {
+            for (int slot = 0; slot < slotsCount(); slot++) {
+                bucketAt(slot).forEach(action);
+            }
+        }
+        if (expectedModificationsCount != modificationsCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the table into the OutputStream. It contains the capacity and then the elements
+     * in bucket order, every element is its hash code followed by length-prefixed UTF-8 key and value.
+     * The stream is flushed but not closed.
+     *
+     * @throws IOException if the stream can not be written
+     */
+    public void serialize(@NotNull OutputStream out) throws IOException {
+        int count = 0;
+        for (var cursor = cursor(); cursor.next(); ) {
+            count++;
+        }
+        var dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(SNAPSHOT_MAGIC);
+        dataOut.writeInt(openAddressing != null ? openAddressing.capacity() : capacity);
+        dataOut.writeInt(count);
+        for (var cursor = cursor(); cursor.next(); ) {
+            dataOut.writeInt(spread(cursor.key().hashCode()));
+            writeString(dataOut, cursor.key());
+            writeString(dataOut, cursor.value());
+        }
+        dataOut.flush();
+    }
+
+    /**
+     * Replaces the content of the table with a snapshot read from the InputStream. Elements are placed
+     * by the stored hash codes. The new storage is sized by the number of elements rather than
+     * by the stored capacity, and storage for a large snapshot grows while its elements are read,
+     * so a corrupted header can not allocate more than the elements that follow it.
+     * The snapshot is read into new storage which replaces the old one after the last element,
+     * so the table is left unchanged if the stream is broken.
+     * The stream is not closed and is read without buffering, so a buffered stream should be passed.
+     *
+     * @throws IOException if the stream can not be read or does not contain a snapshot
+     */
+    public void deserialize(@NotNull InputStream in) throws IOException {
+        var dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a hash table snapshot");
+        }
+        int snapshotCapacity = dataIn.readInt();
+        int count = dataIn.readInt();
+        if (snapshotCapacity < MINIMAL_CAPACITY || snapshotCapacity > MAXIMAL_CAPACITY
+                || Integer.bitCount(snapshotCapacity) != 1 || count < 0) {
+            throw new IOException("Corrupted hash table snapshot");
+        }
+        int preallocated = Math.min(count, PREALLOCATED_SNAPSHOT_SIZE);
+        if (openAddressing != null) {
+            var newOpenAddressing = openAddressing.emptyCopy(preallocated);
+            for (int i = 0; i < count; i++) {
+                int hash = dataIn.readInt();
+                newOpenAddressing.putAbsent(readKey(dataIn), readValue(dataIn), hash);
+            }
+            modificationsCount++;
+            openAddressing = newOpenAddressing;
+            return;
+        }
+        var newBuckets = newBuckets(capacityFor(preallocated, loadFactor));
+        for (int i = 0; i < count; i++) {
+            if (i >= newBuckets.length * (double) loadFactor && newBuckets.length < MAXIMAL_CAPACITY) {
+                newBuckets = doubled(newBuckets);
+            }
+            int hash = dataIn.readInt();
+            newBuckets[hash & (newBuckets.length - 1)].pushFront(readKey(dataIn), readValue(dataIn));
+        }
+        modificationsCount++;
+        oldBuckets = null;
+        setBuckets(newBuckets);
+        keysCount = count;
+    }
+
+    /** Relinks the nodes into twice as many buckets, it is used only while a large snapshot is read */
+    private static @NotNull KeyValueList[] doubled(@NotNull KeyValueList[] buckets) {
+        var newBuckets = newBuckets(buckets.length * 2);
+        for (var bucket : buckets) {
+            while (!bucket.empty()) {
+                bucket.moveFrontTo(newBuckets[spread(bucket.frontKey().hashCode()) & (newBuckets.length - 1)]);
+            }
+        }
+        return newBuckets;
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @Nullable String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        var bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static @NotNull String readKey(@NotNull DataInputStream in) throws IOException {
+        var key = readValue(in);
+        if (key == null) {
+            throw new IOException("Corrupted hash table snapshot: null key");
+        }
+        return key;
+    }
+
+    private static @Nullable String readValue(@NotNull DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupted hash table snapshot: negative length");
+        }
+        var bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Returns a cursor over all elements of the table which is positioned before the first element */
+    public @NotNull Cursor cursor() {
+        return new Cursor(0, slotsCount());
+    }
+
+    /**
+     * Returns a spliterator over the elements of the table, so they can be processed by a parallel stream.
+     * Unlike {@link #cursor()}, every element is a new entry.
+     */
+    public @NotNull Spliterator<Map.Entry<String, String>> spliterator() {
+        return new EntrySpliterator(cursor());
+    }
+
+    /**
+     * Iterates over elements of the table without allocating an object for every element:
+     * {@link #key()} and {@link #value()} return the current element until the next call of {@link #next()}.
+     * Chains are walked node by node, only a bucket that is kept as a tree allocates an iterator.
+     * The table must not be modified while the cursor is used.
+     */
+    public class Cursor {
+        private int slot;
+        private int end;
+        private @Nullable KeyValueList.Node node;
+        private @NotNull Iterator<Map.Entry<String, String>> treeIterator = Collections.emptyIterator();
+        private final int expectedModificationsCount = modificationsCount;
+        private String key;
+        private String value;
+
+        private Cursor(int slot, int end) {
+            this.slot = slot;
+            this.end = end;
+        }
+
+        /**
+         * Moves the cursor to the next element
+         *
+         * @return True if there is the next element, false if the cursor has passed the last one
+         * @throws ConcurrentModificationException if the table has been modified since the cursor was created
+         */
+        public boolean next() {
+            if (expectedModificationsCount != modificationsCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (openAddressing != null) {
+                slot = openAddressing.nextSlot(slot, end);
+                if (slot >= end) {
+                    return false;
+                }
+                key = openAddressing.keyAt(slot);
+                value = openAddressing.valueAt(slot++);
+                return true;
+            }
+            while (true) {
+                if (node != null) {
+                    key = node.getKey();
+                    value = node.getValue();
+                    node = node.next();
+                    return true;
+                }
+                if (treeIterator.hasNext()) {
+                    var entry = treeIterator.next();
+                    key = entry.getKey();
+                    value = entry.getValue();
+                    return true;
+                }
+                if (slot >= end) {
+                    return false;
+                }
+                var bucket = bucketAt(slot++);
+                node = bucket.head();
+                treeIterator = bucket.treeIterator();
+            }
+        }
+
+        /** Returns the key of the current element */
+        public String key() {
+            return key;
+        }
+
+        /** Returns the value of the current element */
+        public String value() {
+            return value;
+        }
+    }
+
+    private class EntrySpliterator implements Spliterator<Map.Entry<String, String>> {
+        private final @NotNull Cursor cursor;
+
+        private EntrySpliterator(@NotNull Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull Consumer<? super Map.Entry<String, String>> action) {
+            if (!cursor.next()) {
+                return false;
+            }
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(cursor.key(), cursor.value()));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<String, String>> trySplit() {
+            int middle = (cursor.slot + cursor.end) >>> 1;
+            if (middle <= cursor.slot) {
+                return null;
+            }
+            var prefix = new EntrySpliterator(new Cursor(cursor.slot, middle));
+            cursor.slot = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) size() * (cursor.end - cursor.slot) / Math.max(slotsCount(), 1);
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL;
+        }
+    }
+
+    /** Counters that are updated by the thread that owns the table and may be read by any other one */
+    private static class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder resizes = new LongAdder();
+        private final LongAdder resizeNanos = new LongAdder();
+        private final LongAccumulator maxResizeNanos = new LongAccumulator(Math::max, 0);
+
+        private void recordLookup(boolean found) {
+            if (found) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+
+        private void recordResize(long nanos) {
+            resizes.increment();
+            resizeNanos.add(nanos);
+            maxResizeNanos.accumulate(nanos);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package ru.hse.aabukov.hashtable;
+
+/**
+ * A management interface of {@link HashTable} statistics, see {@link HashTableStatistics}.
+ * The chain length histogram and the maximal bucket length are computed on demand by scanning the table
+ * while the owner thread may modify it, so they are approximate.
+ */
+public interface HashTableMXBean {
+    int getSize();
+
+    int getCapacity();
+
+    long getHits();
+
+    long getMisses();
+
+    long getResizes();
+
+    long getResizeNanos();
+
+    long getMaxResizeNanos();
+
+    long[] getChainLengthHistogram();
+
+    int getMaxBucketLength();
+
+    boolean isStatisticsEnabled();
+
+    void setStatisticsEnabled(boolean enabled);
+}
@@ -0,0 +1,95 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exposes statistics of a {@link HashTable} through JMX. Attributes are read by a JMX thread:
+ * the counters are exact, the size and the capacity may be stale, and the bucket lengths are found
+ * by a scan that tolerates concurrent resizes, so they are approximate.
+ */
+public class HashTableMonitor implements HashTableMXBean {
+    private final @NotNull HashTable table;
+
+    /**
+     * Creates a monitor of the table
+     *
+     * @param table the table to monitor
+     */
+    public HashTableMonitor(@NotNull HashTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Turns the statistics mode of the table on and registers its monitor in the platform MBean server
+     *
+     * @param table the table to monitor
+     * @param name  the name that distinguishes the table from others
+     * @return The name of the registered MBean
+     * @throws JMException if the MBean can not be registered, for example if the name is taken
+     */
+    public static @NotNull ObjectName register(@NotNull HashTable table, @NotNull String name) throws JMException {
+        var objectName = new ObjectName("ru.hse.aabukov.hashtable:type=HashTable,name=" + ObjectName.quote(name));
+        table.setStatisticsEnabled(true);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new HashTableMonitor(table), objectName);
+        return objectName;
+    }
+
+    @Override
+    public int getSize() {
+        return table.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return table.statistics(false).capacity();
+    }
+
+    @Override
+    public long getHits() {
+        return table.statistics(false).hits();
+    }
+
+    @Override
+    public long getMisses() {
+        return table.statistics(false).misses();
+    }
+
+    @Override
+    public long getResizes() {
+        return table.statistics(false).resizes();
+    }
+
+    @Override
+    public long getResizeNanos() {
+        return table.statistics(false).resizeNanos();
+    }
+
+    @Override
+    public long getMaxResizeNanos() {
+        return table.statistics(false).maxResizeNanos();
+    }
+
+    @Override
+    public long[] getChainLengthHistogram() {
+        return table.statistics(true).chainLengthHistogram();
+    }
+
+    @Override
+    public int getMaxBucketLength() {
+        return table.statistics(true).maxChainLength();
+    }
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return table.isStatisticsEnabled();
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean enabled) {
+        table.setStatisticsEnabled(enabled);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+/** An immutable snapshot of {@link HashTable} statistics */
+public class HashTableStatistics {
+    private final int size;
+    private final int capacity;
+    private final long hits;
+    private final long misses;
+    private final long resizes;
+    private final long resizeNanos;
+    private final long maxResizeNanos;
+    private final @NotNull long[] chainLengthHistogram;
+
+    HashTableStatistics(int size, int capacity, long hits, long misses, long resizes, long resizeNanos,
+                        long maxResizeNanos, @NotNull long[] chainLengthHistogram) {
+        this.size = size;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.resizes = resizes;
+        this.resizeNanos = resizeNanos;
+        this.maxResizeNanos = maxResizeNanos;
+        this.chainLengthHistogram = chainLengthHistogram;
+    }
+
+    /** Returns the number of elements */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of buckets or slots */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Returns the number of get and contains calls that found an element */
+    public long hits() {
+        return hits;
+    }
+
+    /** Returns the number of get and contains calls that did not find an element */
+    public long misses() {
+        return misses;
+    }
+
+    /** Returns the number of resizes */
+    public long resizes() {
+        return resizes;
+    }
+
+    /** Returns the total time spent in resizes in nanoseconds */
+    public long resizeNanos() {
+        return resizeNanos;
+    }
+
+    /** Returns the time of the longest resize in nanoseconds */
+    public long maxResizeNanos() {
+        return maxResizeNanos;
+    }
+
+    /** Returns an array where the element with index i is the number of buckets of length i */
+    public @NotNull long[] chainLengthHistogram() {
+        return chainLengthHistogram.clone();
+    }
+
+    /** Returns the length of the longest bucket */
+    public int maxChainLength() {
+        return chainLengthHistogram.length - 1;
+    }
+}
@@ -1,16 +1,38 @@
 package ru.hse.aabukov.hashtable;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-/** Implements associative array interface for pairs of strings using linked list */
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Implements associative array interface for pairs of strings using linked list.
+ * A long list is converted to a balanced tree ordered by hash code and then by key,
+ * so colliding keys cost O(log n) per operation, and it is converted back when it becomes short.
+ */
 public class KeyValueList {
+    static final int TREEIFY_THRESHOLD = 8;
+    static final int UNTREEIFY_THRESHOLD = 6;
+    private static final Comparator<String> TREE_ORDER =
+            Comparator.comparingInt(String::hashCode).thenComparing(Comparator.naturalOrder());
 
     private Node begin = null;
+    private @Nullable TreeMap<String, String> tree = null;
+    private int size;
 
     /** Removes the first element from the list */
     public void popFront() {
+        if (tree != null) {
+            if (tree.pollFirstEntry() != null) {
+                size--;
+            }
+            untreeifyIfShort();
+            return;
+        }
         if (begin != null) {
             begin = begin.next;
+            size--;
         }
     }
 
@@ -20,6 +42,9 @@ public class KeyValueList {
      * @return The key of the first element
      */
     public String frontKey() {
+        if (tree != null) {
+            return tree.isEmpty() ? null : tree.firstKey();
+        }
         if (begin == null) {
             return null;
         }
@@ -32,6 +57,9 @@ public class KeyValueList {
      * @return The first element
      */
     public String frontValue() {
+        if (tree != null) {
+            return tree.isEmpty() ? null : tree.firstEntry().getValue();
+        }
         if (begin == null) {
             return null;
         }
@@ -45,7 +73,17 @@ public class KeyValueList {
      * @return True if the list is empty
      */
     public boolean empty() {
-        return begin == null;
+        return size == 0;
+    }
+
+    /** Returns the number of elements in the list */
+    public int size() {
+        return size;
+    }
+
+    /** Checks whether the elements are kept in a tree */
+    boolean treeified() {
+        return tree != null;
     }
 
     /**
@@ -55,6 +93,9 @@ public class KeyValueList {
      * @return True if an element with given key contains in the list
      */
     public boolean contains(@NotNull String key) {
+        if (tree != null) {
+            return tree.containsKey(key);
+        }
         return findByKey(key) != null;
     }
 
@@ -65,6 +106,9 @@ public class KeyValueList {
      * @return An element if it is in the list, null otherwise
      */
     public String get(@NotNull String key) {
+        if (tree != null) {
+            return tree.get(key);
+        }
         var foundNode = findByKey(key);
         if (foundNode != null) {
             return foundNode.value;
@@ -81,9 +125,19 @@ public class KeyValueList {
      * @return A previous element if table contained an element with given key, null otherwise
      */
     public String put(@NotNull String key, String value) {
+        if (tree != null) {
+            if (!tree.containsKey(key)) {
+                size++;
+            }
+            return tree.put(key, value);
+        }
         var foundNode = findByKey(key);
         if (foundNode == null) {
             begin = new Node(key, value, begin);
+            size++;
+            if (size > TREEIFY_THRESHOLD) {
+                treeify();
+            }
             return null;
         }
         var previousValue = foundNode.value;
@@ -98,23 +152,110 @@ public class KeyValueList {
      * @return An element with given key if an element with this key contained in the list, null otherwise
      */
     public String remove(@NotNull String key) {
-        var valueByKey = get(key);
-        if (valueByKey == null) {
+        if (tree != null) {
+            if (!tree.containsKey(key)) {
+                return null;
+            }
+            size--;
+            var valueByKey = tree.remove(key);
+            untreeifyIfShort();
+            return valueByKey;
+        }
+        Node previous = null;
+        var currentNode = begin;
+        while (currentNode != null && !key.equals(currentNode.key)) {
+            previous = currentNode;
+            currentNode = currentNode.next;
+        }
+        if (currentNode == null) {
             return null;
         }
-        begin = removeByKey(key, begin);
-        return valueByKey;
+        if (previous == null) {
+            begin = currentNode.next;
+        } else {
+            previous.next = currentNode.next;
+        }
+        size--;
+        return currentNode.value;
     }
 
-    private Node removeByKey(@NotNull String key, Node list) {
-        if (list == null) {
-            return null;
+    /**
+     * Puts an element with a key that is known to be absent from the list without searching for it
+     *
+     * @param key   the key ot the element
+     * @param value the element to put
+     */
+    void pushFront(@NotNull String key, String value) {
+        size++;
+        if (tree != null) {
+            tree.put(key, value);
+            return;
         }
-        if (key.equals(list.key)) {
-            return list.next;
+        begin = new Node(key, value, begin);
+        if (size > TREEIFY_THRESHOLD) {
+            treeify();
         }
-        list.next = removeByKey(key, list.next);
-        return list;
+    }
+
+    /**
+     * Moves the first element into another list which does not contain its key. The node is relinked,
+     * so nothing is allocated unless one of the lists is a tree
+     *
+     * @param target the list to move the element to
+     */
+    void moveFrontTo(@NotNull KeyValueList target) {
+        if (tree != null || target.tree != null) {
+            target.pushFront(frontKey(), frontValue());
+            popFront();
+            return;
+        }
+        var node = begin;
+        begin = node.next;
+        size--;
+        node.next = target.begin;
+        target.begin = node;
+        if (++target.size > TREEIFY_THRESHOLD) {
+            target.treeify();
+        }
+    }
+
+    private void treeify() {
+        tree = new TreeMap<>(TREE_ORDER);
+        for (var node = begin; node != null; node = node.next) {
+            tree.put(node.key, node.value);
+        }
+        begin = null;
+    }
+
+    private void untreeifyIfShort() {
+        if (tree == null || size >= UNTREEIFY_THRESHOLD) {
+            return;
+        }
+        for (var entry : tree.descendingMap().entrySet()) {
+            begin = new Node(entry.getKey(), entry.getValue(), begin);
+        }
+        tree = null;
+    }
+
+    /** Performs the given action for each element of the list */
+    public void forEach(@NotNull BiConsumer<String, String> action) {
+        if (tree != null) {
+            tree.forEach(action);
+            return;
+        }
+        for (var node = begin; node != null; node = node.next) {
+            action.accept(node.key, node.value);
+        }
+    }
+
+    /** Returns the first node if the elements are kept in a list, null if the list is empty or is a tree */
+    @Nullable Node head() {
+        return begin;
+    }
+
+    /** Returns an iterator over elements kept as a tree, it is empty for a list which is walked from {@link #head()} */
+    @NotNull Iterator<Map.Entry<String, String>> treeIterator() {
+        return tree == null ? Collections.emptyIterator() : tree.entrySet().iterator();
     }
 
     private Node findByKey(@NotNull String key) {
@@ -125,7 +266,7 @@ public class KeyValueList {
         return currentNode;
     }
 
-    private class Node {
+    static class Node implements Map.Entry<String, String> {
         private Node next;
         private @NotNull String key;
         private String value;
@@ -135,5 +276,40 @@ public class KeyValueList {
             this.value = value;
             this.next = next;
         }
+
+        /** Returns the next node of the list or null if it is the last one */
+        @Nullable Node next() {
+            return next;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String setValue(String value) {
+            var previousValue = this.value;
+            this.value = value;
+            return previousValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Map.Entry)) return false;
+            var entry = (Map.Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
     }
 }
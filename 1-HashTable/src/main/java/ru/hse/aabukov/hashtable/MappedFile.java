@@ -0,0 +1,110 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file mapped into memory by segments of equal size, so it may be larger than one buffer can address.
+ * Values are never split between segments as long as they are aligned to their size.
+ */
+class MappedFile implements Closeable {
+    private final @NotNull FileChannel channel;
+    private final int segmentSize;
+    private @NotNull MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * Opens the file creating it if necessary and maps its current content
+     *
+     * @param path        the file to map
+     * @param segmentSize a power of two size of a segment
+     */
+    MappedFile(@NotNull Path path, int segmentSize) throws IOException {
+        this.segmentSize = segmentSize;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ensureCapacity(channel.size());
+    }
+
+    /** Returns the number of mapped bytes, it is always a multiple of the segment size */
+    long length() {
+        return (long) segments.length * segmentSize;
+    }
+
+    /** Maps new segments, and so grows the file, until the given number of bytes is available */
+    void ensureCapacity(long length) throws IOException {
+        if (length() >= length) {
+            return;
+        }
+        int count = (int) ((length + segmentSize - 1) / segmentSize);
+        int mapped = segments.length;
+        segments = Arrays.copyOf(segments, count);
+        for (int i = mapped; i < count; i++) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize);
+        }
+    }
+
+    private @NotNull MappedByteBuffer segment(long position) {
+        return segments[(int) (position / segmentSize)];
+    }
+
+    private int offset(long position) {
+        return (int) (position & (segmentSize - 1));
+    }
+
+    byte getByte(long position) {
+        return segment(position).get(offset(position));
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    /** Reads bytes that lie in one segment */
+    void get(long position, @NotNull byte[] destination) {
+        var segment = segment(position);
+        int offset = offset(position);
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = segment.get(offset + i);
+        }
+    }
+
+    /** Writes bytes that must lie in one segment */
+    void put(long position, @NotNull byte[] source) {
+        var segment = segment(position);
+        int offset = offset(position);
+        for (int i = 0; i < source.length; i++) {
+            segment.put(offset + i, source[i]);
+        }
+    }
+
+    /** Writes all changes to the storage device */
+    void force() {
+        for (var segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,400 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Implements an associative array interface for pairs of strings that lives in memory-mapped files
+ * instead of the Java heap. Keys and values are stored UTF-8 encoded, and an opened table is usable at once
+ * without rebuilding.
+ *
+ * <p>Two files are used. The data file at the given path has a header and appended records
+ * (key length, value length, key bytes, value bytes). The index file next to it, with ".index" suffix,
+ * is an open-addressing table of slots (record offset, hash code) with linear probing.
+ * Overwritten and removed records stay in the data file until {@link #compact()} is called.
+ * Changes are written to the disk on {@link #close()}, the files are not protected against a crash
+ * with the exception of compaction: it writes new files next to the old ones, and a compaction
+ * interrupted after they are complete is finished when the table is opened.
+ */
+public class MappedHashTable implements Closeable {
+    private static final int MAGIC = 0x48544231;
+    private static final int VERSION = 1;
+    private static final int SIZE_OFFSET = 8;
+    private static final int DATA_END_OFFSET = 16;
+    private static final int GARBAGE_OFFSET = 24;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int DATA_SEGMENT_SIZE = 1 << 26;
+    private static final int MAXIMAL_INDEX_SEGMENT_SIZE = 1 << 30;
+    private final @NotNull Path dataPath;
+    private final @NotNull Path indexPath;
+    private @NotNull MappedFile data;
+    private @NotNull MappedFile index;
+    private long mask;
+
+    /**
+     * Opens a table stored at the given path or creates an empty one
+     *
+     * @param path the data file of the table
+     * @throws IOException if the files can not be opened or do not contain a table
+     */
+    public MappedHashTable(@NotNull Path path) throws IOException {
+        dataPath = path;
+        indexPath = path.resolveSibling(path.getFileName() + ".index");
+        if (Files.exists(compacted(indexPath))) {
+            finishCompaction();
+        }
+        boolean exists = Files.exists(dataPath) && Files.size(dataPath) > 0;
+        if (exists && !Files.exists(indexPath)) {
+            throw new IOException("Index file is missing: " + indexPath);
+        }
+        data = openData(dataPath);
+        if (!exists) {
+            index = createIndex(INITIAL_CAPACITY);
+        } else {
+            index = new MappedFile(indexPath, indexSegmentSize(Files.size(indexPath) / SLOT_SIZE));
+        }
+        mask = index.length() / SLOT_SIZE - 1;
+    }
+
+    private static @NotNull MappedFile openData(@NotNull Path path) throws IOException {
+        var file = new MappedFile(path, DATA_SEGMENT_SIZE);
+        if (file.length() == 0) {
+            file.ensureCapacity(HEADER_SIZE);
+            file.putInt(0, MAGIC);
+            file.putInt(4, VERSION);
+            file.putLong(DATA_END_OFFSET, HEADER_SIZE);
+        } else if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+            file.close();
+            throw new IOException("Not a hash table file: " + path);
+        }
+        return file;
+    }
+
+    private static int indexSegmentSize(long capacity) {
+        return (int) Math.min(capacity * SLOT_SIZE, MAXIMAL_INDEX_SEGMENT_SIZE);
+    }
+
+    private static @NotNull Path temporary(@NotNull Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    /** Returns the path a complete compacted index is moved to before the files are replaced */
+    private static @NotNull Path compacted(@NotNull Path path) {
+        return path.resolveSibling(path.getFileName() + ".compacted");
+    }
+
+    private @NotNull MappedFile createIndex(long capacity) throws IOException {
+        var path = temporary(indexPath);
+        Files.deleteIfExists(path);
+        var file = new MappedFile(path, indexSegmentSize(capacity));
+        file.ensureCapacity(capacity * SLOT_SIZE);
+        file.close();
+        Files.move(path, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new MappedFile(indexPath, indexSegmentSize(capacity));
+    }
+
+    private static int hash(@NotNull byte[] key) {
+        return HashTable.spread(Arrays.hashCode(key));
+    }
+
+    private static @NotNull byte[] encode(@NotNull String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long home(int hash, long mask) {
+        return Integer.toUnsignedLong(hash) & mask;
+    }
+
+    private static long recordOffset(@NotNull MappedFile index, long slot) {
+        return index.getLong(slot * SLOT_SIZE);
+    }
+
+    private static int slotHash(@NotNull MappedFile index, long slot) {
+        return index.getInt(slot * SLOT_SIZE + 8);
+    }
+
+    private static void setSlot(@NotNull MappedFile index, long slot, long record, int hash) {
+        index.putLong(slot * SLOT_SIZE, record);
+        index.putInt(slot * SLOT_SIZE + 8, hash);
+    }
+
+    private static @NotNull byte[] readKey(@NotNull MappedFile data, long record) {
+        var key = new byte[data.getInt(record)];
+        data.get(record + RECORD_HEADER_SIZE, key);
+        return key;
+    }
+
+    private static @Nullable byte[] readValue(@NotNull MappedFile data, long record) {
+        int valueLength = data.getInt(record + 4);
+        if (valueLength < 0) {
+            return null;
+        }
+        var value = new byte[valueLength];
+        data.get(record + RECORD_HEADER_SIZE + data.getInt(record), value);
+        return value;
+    }
+
+    private static long recordSize(@NotNull MappedFile data, long record) {
+        return RECORD_HEADER_SIZE + data.getInt(record) + Math.max(data.getInt(record + 4), 0);
+    }
+
+    /** Appends a record so that it lies in one segment and returns its offset */
+    private static long append(@NotNull MappedFile data, @NotNull byte[] key, @Nullable byte[] value)
+            throws IOException {
+        int size = RECORD_HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        if (size > DATA_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Element is too large: " + size + " bytes");
+        }
+        long record = data.getLong(DATA_END_OFFSET);
+        if (record % DATA_SEGMENT_SIZE + size > DATA_SEGMENT_SIZE) {
+            record += DATA_SEGMENT_SIZE - record % DATA_SEGMENT_SIZE;
+        }
+        data.ensureCapacity(record + size);
+        data.putInt(record, key.length);
+        data.putInt(record + 4, value == null ? -1 : value.length);
+        data.put(record + RECORD_HEADER_SIZE, key);
+        if (value != null) {
+            data.put(record + RECORD_HEADER_SIZE + key.length, value);
+        }
+        data.putLong(DATA_END_OFFSET, record + size);
+        return record;
+    }
+
+    private boolean keyEquals(long record, @NotNull byte[] key) {
+        if (data.getInt(record) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (data.getByte(record + RECORD_HEADER_SIZE + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long findSlot(@NotNull byte[] key, int hash) {
+        long slot = home(hash, mask);
+        long record;
+        while ((record = recordOffset(index, slot)) != 0) {
+            if (slotHash(index, slot) == hash && keyEquals(record, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static @Nullable String decode(@Nullable byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void addGarbage(long record) {
+        data.putLong(GARBAGE_OFFSET, data.getLong(GARBAGE_OFFSET) + recordSize(data, record));
+    }
+
+    private void setSize(int size) {
+        data.putInt(SIZE_OFFSET, size);
+    }
+
+    private void expand() throws IOException {
+        long capacity = (mask + 1) * 2;
+        var path = temporary(indexPath);
+        Files.deleteIfExists(path);
+        var expanded = new MappedFile(path, indexSegmentSize(capacity));
+        expanded.ensureCapacity(capacity * SLOT_SIZE);
+        for (long slot = 0; slot <= mask; slot++) {
+            long record = recordOffset(index, slot);
+            if (record != 0) {
+                int hash = slotHash(index, slot);
+                long position = home(hash, capacity - 1);
+                while (recordOffset(expanded, position) != 0) {
+                    position = (position + 1) & (capacity - 1);
+                }
+                setSlot(expanded, position, record, hash);
+            }
+        }
+        expanded.close();
+        index.close();
+        Files.move(path, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index = new MappedFile(indexPath, indexSegmentSize(capacity));
+        mask = capacity - 1;
+    }
+
+    /** Returns the number of elements */
+    public int size() {
+        return data.getInt(SIZE_OFFSET);
+    }
+
+    /** Returns the number of bytes taken by overwritten and removed records which {@link #compact()} frees */
+    public long garbageSize() {
+        return data.getLong(GARBAGE_OFFSET);
+    }
+
+    /**
+     * Checks whether the hash table contains an element with given key
+     *
+     * @param key the key of element to check
+     */
+    public boolean contains(@NotNull String key) {
+        var bytes = encode(key);
+        return findSlot(bytes, hash(bytes)) >= 0;
+    }
+
+    /**
+     * Returns an element with given key
+     *
+     * @param key the key of an element to find
+     * @return An element if it is in the hash table, null otherwise
+     */
+    public String get(@NotNull String key) {
+        var bytes = encode(key);
+        long slot = findSlot(bytes, hash(bytes));
+        return slot < 0 ? null : decode(readValue(data, recordOffset(index, slot)));
+    }
+
+    /**
+     * Puts the element with given key and returns a previous element
+     *
+     * @param key   the key ot the element
+     * @param value the element to put
+     * @return A previous element if the table contained an element with given key, null otherwise
+     * @throws IOException              if the files can not be grown
+     * @throws IllegalArgumentException if the encoded element does not fit into a segment of the data file
+     */
+    public String put(@NotNull String key, String value) throws IOException {
+        var keyBytes = encode(key);
+        var valueBytes = value == null ? null : encode(value);
+        int hash = hash(keyBytes);
+        long slot = findSlot(keyBytes, hash);
+        if (slot >= 0) {
+            long previous = recordOffset(index, slot);
+            var previousValue = decode(readValue(data, previous));
+            setSlot(index, slot, append(data, keyBytes, valueBytes), hash);
+            addGarbage(previous);
+            return previousValue;
+        }
+        slot = home(hash, mask);
+        while (recordOffset(index, slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(index, slot, append(data, keyBytes, valueBytes), hash);
+        setSize(size() + 1);
+        if (size() > (mask + 1) * LOAD_FACTOR) {
+            expand();
+        }
+        return null;
+    }
+
+    /**
+     * Removes an element with given key
+     *
+     * @param key the key of an element to remove
+     * @return An element with given key if an element with this key contained in the table, null otherwise
+     */
+    public String remove(@NotNull String key) {
+        var bytes = encode(key);
+        long hole = findSlot(bytes, hash(bytes));
+        if (hole < 0) {
+            return null;
+        }
+        long record = recordOffset(index, hole);
+        var valueByKey = decode(readValue(data, record));
+        addGarbage(record);
+        setSize(size() - 1);
+        long slot = (hole + 1) & mask;
+        long next;
+        while ((next = recordOffset(index, slot)) != 0) {
+            int hash = slotHash(index, slot);
+            long home = home(hash, mask);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                setSlot(index, hole, next, hash);
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        setSlot(index, hole, 0, 0);
+        return valueByKey;
+    }
+
+    /** Removes all elements. The files are not shrunk */
+    public void clear() throws IOException {
+        index.close();
+        index = createIndex(INITIAL_CAPACITY);
+        mask = INITIAL_CAPACITY - 1;
+        setSize(0);
+        data.putLong(DATA_END_OFFSET, HEADER_SIZE);
+        data.putLong(GARBAGE_OFFSET, 0);
+    }
+
+    /**
+     * Rewrites the data file without overwritten and removed records. The compacted data and index are
+     * written to new files, so the table is left unchanged if it fails. The complete index is moved
+     * to a ".compacted" file, and only then the new files replace the old ones
+     *
+     * @throws IOException if the new files can not be written or moved
+     */
+    public void compact() throws IOException {
+        var dataCopyPath = temporary(dataPath);
+        var indexCopyPath = temporary(indexPath);
+        Files.deleteIfExists(dataCopyPath);
+        Files.deleteIfExists(indexCopyPath);
+        long capacity = mask + 1;
+        try {
+            var compactedData = openData(dataCopyPath);
+            var compactedIndex = new MappedFile(indexCopyPath, indexSegmentSize(capacity));
+            try {
+                compactedIndex.ensureCapacity(capacity * SLOT_SIZE);
+                for (long slot = 0; slot < capacity; slot++) {
+                    long record = recordOffset(index, slot);
+                    if (record != 0) {
+                        long copy = append(compactedData, readKey(data, record), readValue(data, record));
+                        setSlot(compactedIndex, slot, copy, slotHash(index, slot));
+                    }
+                }
+                compactedData.putInt(SIZE_OFFSET, size());
+            } finally {
+                compactedData.close();
+                compactedIndex.close();
+            }
+            Files.move(indexCopyPath, compacted(indexPath), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(dataCopyPath);
+            Files.deleteIfExists(indexCopyPath);
+            throw e;
+        }
+        data.close();
+        index.close();
+        finishCompaction();
+        data = openData(dataPath);
+        index = new MappedFile(indexPath, indexSegmentSize(capacity));
+    }
+
+    /** Replaces the files with the compacted ones, the data file may have been replaced already */
+    private void finishCompaction() throws IOException {
+        var dataCopyPath = temporary(dataPath);
+        if (Files.exists(dataCopyPath)) {
+            Files.move(dataCopyPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(compacted(indexPath), indexPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Writes all changes to the disk and closes the files */
+    @Override
+    public void close() throws IOException {
+        index.close();
+        data.close();
+    }
+}
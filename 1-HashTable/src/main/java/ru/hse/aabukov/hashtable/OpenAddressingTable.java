@@ -0,0 +1,259 @@
+package ru.hse.aabukov.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Implements an associative array interface for pairs of strings using linear probing
+ * over parallel arrays of keys, values and cached hash codes
+ */
+class OpenAddressingTable {
+    private final int initialCapacity;
+    private final float loadFactor;
+    private String[] keys;
+    private String[] values;
+    private int[] hashes;
+    private int mask;
+    private int threshold;
+    private int keysCount;
+
+    /**
+     * Creates an empty table
+     *
+     * @param initialCapacity a power of two capacity
+     * @param loadFactor      the maximal ratio of the number of elements to the capacity, less than 1
+     */
+    OpenAddressingTable(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, initialCapacity);
+    }
+
+    private OpenAddressingTable(int initialCapacity, float loadFactor, int capacity) {
+        this.initialCapacity = initialCapacity;
+        this.loadFactor = loadFactor;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        values = new String[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+    }
+
+    private static int hash(@NotNull String key) {
+        return HashTable.spread(key.hashCode());
+    }
+
+    private int findSlot(@NotNull String key, int hash) {
+        int position = hash & mask;
+        while (keys[position] != null) {
+            if (hashes[position] == hash && key.equals(keys[position])) {
+                return position;
+            }
+            position = (position + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int newCapacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        var oldHashes = hashes;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int position = oldHashes[i] & mask;
+                while (keys[position] != null) {
+                    position = (position + 1) & mask;
+                }
+                keys[position] = oldKeys[i];
+                values[position] = oldValues[i];
+                hashes[position] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Resizes the table, if it is needed, so that it holds the given number of elements without resizing
+     *
+     * @param expectedSize the number of elements the table is going to contain
+     */
+    void ensureCapacity(int expectedSize) {
+        int newCapacity = HashTable.capacityFor(expectedSize, loadFactor);
+        if (newCapacity > keys.length) {
+            rehash(newCapacity);
+        }
+    }
+
+    /**
+     * Returns an empty table with the same settings and with slots for the given number of elements
+     *
+     * @param expectedSize the number of elements the table is going to contain
+     */
+    @NotNull OpenAddressingTable emptyCopy(int expectedSize) {
+        return new OpenAddressingTable(initialCapacity, loadFactor, HashTable.capacityFor(expectedSize, loadFactor));
+    }
+
+    /**
+     * Puts an element with a key that is known to be absent without comparing keys
+     *
+     * @param key   the key ot the element
+     * @param value the element to put
+     * @param hash  the spread hash code of the key
+     */
+    void putAbsent(@NotNull String key, String value, int hash) {
+        int position = hash & mask;
+        while (keys[position] != null) {
+            position = (position + 1) & mask;
+        }
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+        if (++keysCount > threshold) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /** Returns how many elements are found at every distance from their home slot, plus one */
+    long[] probeLengthHistogram() {
+        var currentKeys = keys;
+        var currentHashes = hashes;
+        int currentMask = currentKeys.length - 1;
+        // the arrays differ in length if they are read by another thread during a rehash
+        int slots = Math.min(currentKeys.length, currentHashes.length);
+        var histogram = new long[1];
+        for (int i = 0; i < slots; i++) {
+            int length = currentKeys[i] == null ? 0 : ((i - currentHashes[i]) & currentMask) + 1;
+            if (length >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, length + 1);
+            }
+            histogram[length]++;
+        }
+        return histogram;
+    }
+
+    /** Returns the number of slots */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the first occupied slot in the given range
+     *
+     * @return The index of the slot, or the end of the range if all slots are empty
+     */
+    int nextSlot(int from, int to) {
+        while (from < to && keys[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    String valueAt(int slot) {
+        return values[slot];
+    }
+
+    /** Performs the given action for each element of the table */
+    void forEach(@NotNull BiConsumer<String, String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /** Returns the number of elements */
+    int size() {
+        return keysCount;
+    }
+
+    /**
+     * Checks whether the table contains an element with given key
+     *
+     * @param key the key of element to check
+     */
+    boolean contains(@NotNull String key) {
+        return findSlot(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Returns an element with given key
+     *
+     * @param key the key of an element to find
+     * @return An element if it is in the table, null otherwise
+     */
+    String get(@NotNull String key) {
+        int position = findSlot(key, hash(key));
+        return position < 0 ? null : values[position];
+    }
+
+    /**
+     * Puts the element with given key and returns a previous element
+     *
+     * @param key   the key ot the element
+     * @param value the element to put
+     * @return A previous element if the table contained an element with given key, null otherwise
+     */
+    String put(@NotNull String key, String value) {
+        int hash = hash(key);
+        int position = hash & mask;
+        while (keys[position] != null) {
+            if (hashes[position] == hash && key.equals(keys[position])) {
+                var previousValue = values[position];
+                values[position] = value;
+                return previousValue;
+            }
+            position = (position + 1) & mask;
+        }
+        keys[position] = key;
+        values[position] = value;
+        hashes[position] = hash;
+        if (++keysCount > threshold) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes an element with given key. The following elements of the probe sequence are shifted back,
+     * so the table never contains tombstones
+     *
+     * @param key the key of an element to remove
+     * @return An element with given key if an element with this key contained in the table, null otherwise
+     */
+    String remove(@NotNull String key) {
+        int hole = findSlot(key, hash(key));
+        if (hole < 0) {
+            return null;
+        }
+        var valueByKey = values[hole];
+        keysCount--;
+        int position = (hole + 1) & mask;
+        while (keys[position] != null) {
+            int home = hashes[position] & mask;
+            if (((position - home) & mask) >= ((position - hole) & mask)) {
+                keys[hole] = keys[position];
+                values[hole] = values[position];
+                hashes[hole] = hashes[position];
+                hole = position;
+            }
+            position = (position + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        return valueByKey;
+    }
+
+    /** Removes all elements and frees an allocated memory */
+    void clear() {
+        allocate(initialCapacity);
+        keysCount = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.hse.aabukov.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHashTableTest {
+    private static final int THREADS_NUMBER = 8;
+    private static final int KEYS_PER_THREAD = 20000;
+
+    private void runConcurrently(int threadsNumber, ThreadBody body) throws InterruptedException {
+        var barrier = new CyclicBarrier(threadsNumber);
+        var failed = new AtomicBoolean();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadsNumber; i++) {
+            int index = i;
+            threads.add(new Thread(() -> {
+                try {
+                    barrier.await();
+                    body.run(index);
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    failed.set(true);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+
+    @Test
+    void sequential() {
+        var table = new ConcurrentHashTable();
+        for (Integer i = 1; i <= 100; i++) {
+            assertNull(table.put(i.toString(), i.toString()));
+        }
+        assertEquals(100, table.size());
+        assertEquals("1", table.put("1", "x"));
+        assertEquals("x", table.get("1"));
+        assertTrue(table.contains("100"));
+        assertFalse(table.contains("101"));
+        assertEquals("x", table.remove("1"));
+        assertNull(table.remove("1"));
+        assertEquals(99, table.size());
+        table.clear();
+        assertEquals(0, table.size());
+        assertNull(table.get("2"));
+    }
+
+    @Test
+    void collidingKeys() {
+        var table = new ConcurrentHashTable();
+        String[] keys = {"Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa"};
+        for (var key : keys) {
+            table.put(key, key);
+        }
+        assertEquals("BBBB", table.remove("BBBB"));
+        assertEquals("AaBB", table.put("AaBB", "x"));
+        assertEquals("x", table.get("AaBB"));
+        assertEquals("Aa", table.get("Aa"));
+        assertNull(table.get("BBBB"));
+        assertEquals(5, table.size());
+    }
+
+    @Test
+    void concurrentPutAndRemove() throws InterruptedException {
+        var table = new ConcurrentHashTable();
+        runConcurrently(THREADS_NUMBER, index -> {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                var key = index + ":" + i;
+                assertNull(table.put(key, key));
+            }
+            for (int i = 0; i < KEYS_PER_THREAD; i += 2) {
+                var key = index + ":" + i;
+                assertEquals(key, table.remove(key));
+            }
+        });
+        assertEquals(THREADS_NUMBER * KEYS_PER_THREAD / 2, table.size());
+        for (int index = 0; index < THREADS_NUMBER; index++) {
+            for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                var key = index + ":" + i;
+                assertEquals(i % 2 == 0 ? null : key, table.get(key));
+            }
+        }
+    }
+
+    @Test
+    void sharedKeys() throws InterruptedException {
+        var table = new ConcurrentHashTable();
+        runConcurrently(THREADS_NUMBER, index -> {
+            for (Integer i = 0; i < KEYS_PER_THREAD; i++) {
+                table.put(i.toString(), i.toString());
+                table.remove(Integer.toString(i / 2));
+            }
+        });
+        for (Integer i = 0; i < KEYS_PER_THREAD; i++) {
+            assertEquals(table.contains(i.toString()), i.toString().equals(table.get(i.toString())));
+        }
+    }
+
+    @Test
+    void readersDuringResize() throws InterruptedException {
+        var table = new ConcurrentHashTable();
+        for (Integer i = 0; i < 100; i++) {
+            table.put(i.toString(), i.toString());
+        }
+        var writerDone = new AtomicBoolean();
+        runConcurrently(THREADS_NUMBER, index -> {
+            if (index == 0) {
+                for (int i = 0; i < KEYS_PER_THREAD * 5; i++) {
+                    table.put("new" + i, "");
+                }
+                writerDone.set(true);
+                return;
+            }
+            while (!writerDone.get()) {
+                for (Integer i = 0; i < 100; i++) {
+                    assertEquals(i.toString(), table.get(i.toString()));
+                }
+            }
+        });
+        assertEquals(100 + KEYS_PER_THREAD * 5, table.size());
+    }
+
+    private interface ThreadBody {
+        void run(int index) throws Exception;
+    }
+}
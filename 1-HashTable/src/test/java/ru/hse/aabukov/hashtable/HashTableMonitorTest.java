@@ -0,0 +1,118 @@
+package ru.hse.aabukov.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTableMonitorTest {
+
+    @Test
+    void register() throws JMException {
+        HashTable table = new HashTable();
+        var name = HashTableMonitor.register(table, "test");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertTrue(table.isStatisticsEnabled());
+            table.put("1", "1");
+            table.get("1");
+            table.get("2");
+            assertEquals(1, server.getAttribute(name, "Size"));
+            assertEquals(1L, server.getAttribute(name, "Hits"));
+            assertEquals(1L, server.getAttribute(name, "Misses"));
+            assertEquals(0L, server.getAttribute(name, "Resizes"));
+            assertArrayEquals(table.statistics().chainLengthHistogram(),
+                    (long[]) server.getAttribute(name, "ChainLengthHistogram"));
+            assertEquals(1, server.getAttribute(name, "MaxBucketLength"));
+            assertThrows(JMException.class, () -> HashTableMonitor.register(new HashTable(), "test"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void attributes() {
+        HashTable table = new HashTable();
+        var monitor = new HashTableMonitor(table);
+        monitor.setStatisticsEnabled(true);
+        assertTrue(table.isStatisticsEnabled());
+        for (Integer i = 0; i < 100; i++) {
+            table.put(i.toString(), i.toString());
+        }
+        assertEquals(100, monitor.getSize());
+        assertEquals(table.statistics().capacity(), monitor.getCapacity());
+        assertTrue(monitor.getResizes() > 0);
+        assertEquals(table.statistics().resizes(), monitor.getResizes());
+        assertArrayEquals(table.statistics().chainLengthHistogram(), monitor.getChainLengthHistogram());
+        assertEquals(table.statistics().maxChainLength(), monitor.getMaxBucketLength());
+        assertEquals(monitor.getCapacity(), Arrays.stream(monitor.getChainLengthHistogram()).sum());
+    }
+
+    @Test
+    void scanBucketsDuringResizes() throws InterruptedException {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            var monitor = new HashTableMonitor(table);
+            var stop = new AtomicBoolean();
+            var failure = new AtomicReference<Throwable>();
+            var reader = new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        for (long buckets : monitor.getChainLengthHistogram()) {
+                            assertTrue(buckets >= 0);
+                        }
+                        assertTrue(monitor.getMaxBucketLength() >= 0);
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            try {
+                for (int round = 0; round < 20; round++) {
+                    for (Integer i = 0; i < 10000; i++) {
+                        table.put(i.toString(), i.toString());
+                    }
+                    table.clear();
+                }
+            } finally {
+                stop.set(true);
+                reader.join();
+            }
+            assertNull(failure.get(), storage.toString());
+        }
+    }
+
+    @Test
+    void toggleStatisticsDuringOperations() throws InterruptedException {
+        HashTable table = new HashTable();
+        var monitor = new HashTableMonitor(table);
+        var stop = new AtomicBoolean();
+        var toggler = new Thread(() -> {
+            while (!stop.get()) {
+                monitor.setStatisticsEnabled(!monitor.isStatisticsEnabled());
+                monitor.getHits();
+                monitor.getMaxResizeNanos();
+            }
+        });
+        toggler.start();
+        try {
+            for (int round = 0; round < 20; round++) {
+                for (Integer i = 0; i < 10000; i++) {
+                    table.put(i.toString(), i.toString());
+                    table.get(i.toString());
+                    table.contains("missing");
+                }
+                table.clear();
+            }
+        } finally {
+            stop.set(true);
+            toggler.join();
+        }
+    }
+}
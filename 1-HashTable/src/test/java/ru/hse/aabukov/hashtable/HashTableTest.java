@@ -2,10 +2,35 @@ package ru.hse.aabukov.hashtable;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HashTableTest {
 
+    static String[] collidingKeys(int count) {
+        var keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            var builder = new StringBuilder();
+            for (int bit = 0; bit < 20; bit++) {
+                builder.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            keys[i] = builder.toString();
+        }
+        return keys;
+    }
+
     HashTable generateId(int count) {
         HashTable hashTable = new HashTable();
         for (Integer i = 1; i <= count; i++) {
@@ -83,4 +108,368 @@ class HashTableTest {
             assertNull(oneToTen.get(i.toString()));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void openAddressing() {
+        HashTable table = new HashTable(HashTable.Storage.OPEN_ADDRESSING);
+        for (Integer i = 1; i <= 100; i++) {
+            assertNull(table.put(i.toString(), i.toString()));
+        }
+        assertEquals(100, table.size());
+        for (Integer i = 1; i <= 100; i++) {
+            assertTrue(table.contains(i.toString()));
+            assertEquals(i.toString(), table.remove(i.toString()));
+        }
+        assertEquals(0, table.size());
+        table.put("1", "1");
+        table.clear();
+        assertNull(table.get("1"));
+    }
+
+    @Test
+    void incrementalChaining() {
+        HashTable table = new HashTable(HashTable.Storage.INCREMENTAL_CHAINING);
+        for (Integer i = 1; i <= 1000; i++) {
+            assertNull(table.put(i.toString(), i.toString()));
+            assertEquals(i.toString(), table.get(i.toString()));
+            assertEquals("1", table.get("1"));
+        }
+        assertEquals(1000, table.size());
+        for (Integer i = 1; i <= 1000; i++) {
+            assertTrue(table.contains(i.toString()));
+            assertEquals(i.toString(), table.put(i.toString(), "x"));
+        }
+        assertEquals(1000, table.size());
+        for (Integer i = 1; i <= 1000; i++) {
+            assertEquals("x", table.remove(i.toString()));
+            assertNull(table.get(i.toString()));
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void presized() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage, 1000, 0.5f);
+            for (Integer i = 1; i <= 2000; i++) {
+                assertNull(table.put(i.toString(), i.toString()));
+            }
+            assertEquals(2000, table.size());
+            for (Integer i = 1; i <= 2000; i++) {
+                assertEquals(i.toString(), table.get(i.toString()));
+            }
+            table.clear();
+            assertEquals(0, table.size());
+            assertNull(table.put("1", "1"));
+            assertEquals("1", table.get("1"));
+        }
+    }
+
+    @Test
+    void illegalArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new HashTable(-1, 0.75f));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable(10, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable(HashTable.Storage.OPEN_ADDRESSING, 10, 1));
+        assertDoesNotThrow(() -> new HashTable(10, 4));
+    }
+
+    @Test
+    void minimalHashCode() {
+        String key = "polygenelubricants";
+        assertEquals(Integer.MIN_VALUE, key.hashCode());
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            assertNull(table.put(key, "1"));
+            assertEquals("1", table.get(key));
+            assertEquals("1", table.remove(key));
+        }
+    }
+
+    @Test
+    void collidingKeys() {
+        String[] keys = collidingKeys(2000);
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            for (var key : keys) {
+                assertNull(table.put(key, key));
+            }
+            for (var key : keys) {
+                assertEquals(key, table.get(key));
+            }
+            for (var key : keys) {
+                assertEquals(key, table.remove(key));
+            }
+            assertEquals(0, table.size());
+        }
+    }
+
+    @Test
+    void forEach() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            var expected = new HashMap<String, String>();
+            for (Integer i = 1; i <= 100; i++) {
+                table.put(i.toString(), "value" + i);
+                expected.put(i.toString(), "value" + i);
+            }
+            var actual = new HashMap<String, String>();
+            table.forEach(actual::put);
+            assertEquals(expected, actual);
+            assertThrows(ConcurrentModificationException.class, () -> table.forEach((key, value) -> table.remove(key)));
+        }
+    }
+
+    @Test
+    void cursor() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            assertFalse(table.cursor().next());
+            for (Integer i = 1; i <= 100; i++) {
+                table.put(i.toString(), "value" + i);
+            }
+            var actual = new HashMap<String, String>();
+            var cursor = table.cursor();
+            while (cursor.next()) {
+                assertNull(actual.put(cursor.key(), cursor.value()));
+            }
+            assertFalse(cursor.next());
+            assertEquals(100, actual.size());
+            assertEquals("value7", actual.get("7"));
+            var invalidated = table.cursor();
+            table.put("0", "0");
+            assertThrows(ConcurrentModificationException.class, invalidated::next);
+        }
+    }
+
+    @Test
+    void putAll() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable first = new HashTable(storage);
+            HashTable second = new HashTable();
+            for (Integer i = 0; i < 1000; i++) {
+                first.put(i.toString(), "first");
+                second.put(Integer.toString(i + 500), "second");
+            }
+            first.putAll(second);
+            first.putAll(first);
+            assertEquals(1500, first.size());
+            assertEquals("first", first.get("0"));
+            assertEquals("second", first.get("500"));
+            assertEquals("second", first.get("1499"));
+        }
+    }
+
+    @Test
+    void putAllCountsResize() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            HashTable other = generateId(1000);
+            table.setStatisticsEnabled(true);
+            int capacity = table.statistics().capacity();
+            table.putAll(other);
+            var statistics = table.statistics();
+            assertTrue(statistics.capacity() > capacity);
+            assertEquals(1, statistics.resizes());
+            assertTrue(statistics.maxResizeNanos() <= statistics.resizeNanos());
+        }
+    }
+
+    @Test
+    void spliterator() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            for (Integer i = 1; i <= 10000; i++) {
+                table.put(i.toString(), i.toString());
+            }
+            long sum = StreamSupport.stream(table.spliterator(), true)
+                    .mapToLong(entry -> Long.parseLong(entry.getValue()))
+                    .sum();
+            assertEquals(10000L * 10001 / 2, sum);
+            Map<String, String> collected = StreamSupport.stream(table.spliterator(), true)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            assertEquals(10000, collected.size());
+        }
+    }
+
+    HashTable copy(HashTable table, HashTable.Storage storage) throws IOException {
+        var output = new ByteArrayOutputStream();
+        table.serialize(output);
+        var copy = new HashTable(storage);
+        copy.put("stale", "stale");
+        copy.deserialize(new ByteArrayInputStream(output.toByteArray()));
+        return copy;
+    }
+
+    @Test
+    void serialize() throws IOException {
+        for (var from : HashTable.Storage.values()) {
+            for (var to : HashTable.Storage.values()) {
+                HashTable table = new HashTable(from);
+                for (Integer i = 1; i <= 1000; i++) {
+                    table.put(i.toString(), "value" + i);
+                }
+                for (var key : collidingKeys(20)) {
+                    table.put(key, key);
+                }
+                table.put("null", null);
+                var copy = copy(table, to);
+                assertEquals(1021, copy.size());
+                assertFalse(copy.contains("stale"));
+                table.forEach((key, value) -> assertEquals(value, copy.get(key)));
+                assertTrue(copy.contains("null"));
+                assertNull(copy.put("1001", "value1001"));
+                assertEquals("value1", copy.remove("1"));
+            }
+        }
+    }
+
+    @Test
+    void serializeEmpty() throws IOException {
+        var copy = copy(new HashTable(), HashTable.Storage.CHAINING);
+        assertEquals(0, copy.size());
+        assertFalse(copy.cursor().next());
+    }
+
+    @Test
+    void serializeDoesNotCloseStream() throws IOException {
+        var output = new ByteArrayOutputStream();
+        generateId(10).serialize(output);
+        generateId(20).serialize(output);
+        var input = new ByteArrayInputStream(output.toByteArray());
+        HashTable first = new HashTable();
+        first.deserialize(input);
+        HashTable second = new HashTable();
+        second.deserialize(input);
+        assertEquals(10, first.size());
+        assertEquals(20, second.size());
+    }
+
+    @Test
+    void deserializeIncorrect() {
+        assertThrows(IOException.class, () -> new HashTable().deserialize(new ByteArrayInputStream(new byte[12])));
+        assertThrows(IOException.class, () -> new HashTable().deserialize(new ByteArrayInputStream(new byte[2])));
+    }
+
+    private static byte[] snapshotOf(String key, int valueLength) throws IOException {
+        var table = new HashTable();
+        table.put(key, "value");
+        var output = new ByteArrayOutputStream();
+        table.serialize(output);
+        var bytes = output.toByteArray();
+        ByteBuffer.wrap(bytes, bytes.length - 4 - "value".length(), 4).putInt(valueLength);
+        return Arrays.copyOf(bytes, bytes.length - "value".length());
+    }
+
+    @Test
+    void deserializeTruncatedKeepsContent() throws IOException {
+        var output = new ByteArrayOutputStream();
+        generateId(100).serialize(output);
+        var bytes = Arrays.copyOf(output.toByteArray(), output.size() - 1);
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            table.put("kept", "kept");
+            assertThrows(IOException.class, () -> table.deserialize(new ByteArrayInputStream(bytes)));
+            assertEquals(1, table.size());
+            assertEquals("kept", table.get("kept"));
+            var iterated = new ArrayList<String>();
+            table.forEach((key, value) -> iterated.add(key));
+            assertEquals(List.of("kept"), iterated);
+        }
+    }
+
+    @Test
+    void deserializeRejectsNullKeysAndNegativeLengths() throws IOException {
+        var nullValue = snapshotOf("key", -1);
+        var negativeLength = snapshotOf("key", -2);
+        var nullKey = snapshotOf("", -1);
+        ByteBuffer.wrap(nullKey, 16, 4).putInt(-1);
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            table.deserialize(new ByteArrayInputStream(nullValue));
+            assertTrue(table.contains("key"));
+            assertNull(table.get("key"));
+            assertThrows(IOException.class, () -> table.deserialize(new ByteArrayInputStream(negativeLength)));
+            assertThrows(IOException.class, () -> table.deserialize(new ByteArrayInputStream(nullKey)));
+            assertTrue(table.contains("key"));
+        }
+    }
+
+    @Test
+    void deserializeIgnoresHostileCapacity() throws IOException {
+        var hostileCapacity = snapshotOf("key", -1);
+        ByteBuffer.wrap(hostileCapacity, 4, 4).putInt(1 << 30);
+        var hostileCount = Arrays.copyOf(snapshotOf("key", -1), 12);
+        ByteBuffer.wrap(hostileCount, 8, 4).putInt(Integer.MAX_VALUE);
+        var smallCapacity = snapshotOf("key", -1);
+        ByteBuffer.wrap(smallCapacity, 4, 4).putInt(4);
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            table.deserialize(new ByteArrayInputStream(hostileCapacity));
+            assertTrue(table.contains("key"));
+            assertTrue(table.statistics().capacity() <= 16);
+            assertThrows(IOException.class, () -> table.deserialize(new ByteArrayInputStream(hostileCount)));
+            assertThrows(IOException.class, () -> table.deserialize(new ByteArrayInputStream(smallCapacity)));
+            assertTrue(table.contains("key"));
+        }
+    }
+
+    @Test
+    void deserializeGrowsLargeSnapshot() throws IOException {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            for (Integer i = 0; i < 200_000; i++) {
+                table.put(i.toString(), "value" + i);
+            }
+            var copy = copy(table, storage);
+            assertEquals(table.size(), copy.size());
+            assertEquals(table.statistics().capacity(), copy.statistics().capacity());
+            for (Integer i = 0; i < 200_000; i++) {
+                assertEquals("value" + i, copy.get(i.toString()));
+            }
+        }
+    }
+
+    @Test
+    void statistics() {
+        for (var storage : HashTable.Storage.values()) {
+            HashTable table = new HashTable(storage);
+            table.put("0", "0");
+            table.get("0");
+            assertFalse(table.isStatisticsEnabled());
+            assertEquals(0, table.statistics().hits());
+            table.setStatisticsEnabled(true);
+            for (Integer i = 1; i <= 100; i++) {
+                table.put(i.toString(), i.toString());
+            }
+            table.get("1");
+            table.contains("2");
+            table.get("missing");
+            var statistics = table.statistics();
+            assertEquals(2, statistics.hits());
+            assertEquals(1, statistics.misses());
+            assertTrue(statistics.resizes() > 0);
+            assertTrue(statistics.maxResizeNanos() <= statistics.resizeNanos());
+            assertEquals(101, statistics.size());
+            long[] histogram = statistics.chainLengthHistogram();
+            long buckets = 0;
+            for (long count : histogram) {
+                buckets += count;
+            }
+            assertTrue(buckets >= statistics.capacity());
+            assertEquals(histogram.length - 1, statistics.maxChainLength());
+            table.setStatisticsEnabled(false);
+            table.get("1");
+            assertEquals(0, table.statistics().hits());
+        }
+    }
+
+    @Test
+    void maxChainLength() {
+        HashTable table = new HashTable();
+        for (var key : collidingKeys(5)) {
+            table.put(key, key);
+        }
+        assertEquals(5, table.statistics().maxChainLength());
+    }
+}
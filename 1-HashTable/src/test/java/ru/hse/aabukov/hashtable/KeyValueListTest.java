@@ -3,6 +3,7 @@ package ru.hse.aabukov.hashtable;
 import org.junit.jupiter.api.Test;
 
 import java.security.Key;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -106,4 +107,202 @@ class KeyValueListTest {
         assertEquals("6", list.remove("5"));
         assertNull(list.remove("5"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void size() {
+        KeyValueList list = new KeyValueList();
+        assertEquals(0, list.size());
+        list.put("1", "1");
+        list.put("1", "2");
+        list.put("2", "2");
+        assertEquals(2, list.size());
+        list.remove("1");
+        list.popFront();
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    void treeify() {
+        KeyValueList list = new KeyValueList();
+        String[] keys = HashTableTest.collidingKeys(64);
+        for (var key : keys) {
+            assertNull(list.put(key, key));
+        }
+        assertTrue(list.treeified());
+        assertEquals(64, list.size());
+        for (var key : keys) {
+            assertTrue(list.contains(key));
+            assertEquals(key, list.put(key, key));
+        }
+        for (int i = 0; i < 60; i++) {
+            assertEquals(keys[i], list.remove(keys[i]));
+            assertNull(list.get(keys[i]));
+        }
+        assertFalse(list.treeified());
+        for (int i = 60; i < 64; i++) {
+            assertEquals(keys[i], list.get(keys[i]));
+        }
+        while (!list.empty()) {
+            assertEquals(list.frontKey(), list.remove(list.frontKey()));
+        }
+    }
+
+    @Test
+    void removeFromLongTree() {
+        KeyValueList list = new KeyValueList();
+        String[] keys = HashTableTest.collidingKeys(1 << 16);
+        for (var key : keys) {
+            list.put(key, key);
+        }
+        for (var key : keys) {
+            assertEquals(key, list.remove(key));
+        }
+        assertTrue(list.empty());
+    }
+
+    private static KeyValueList fullChain(String[] keys) {
+        KeyValueList list = new KeyValueList();
+        for (var key : keys) {
+            list.put(key, "value" + key);
+        }
+        assertFalse(list.treeified());
+        return list;
+    }
+
+    @Test
+    void removeFromChainBelowTreeifyThreshold() {
+        String[] keys = HashTableTest.collidingKeys(KeyValueList.TREEIFY_THRESHOLD);
+        int last = keys.length - 1;
+        for (int removed : new int[]{last, keys.length / 2, 0}) {
+            KeyValueList list = fullChain(keys);
+            assertEquals(keys[last], list.frontKey());
+            assertEquals("value" + keys[removed], list.remove(keys[removed]));
+            assertNull(list.remove(keys[removed]));
+            assertFalse(list.contains(keys[removed]));
+            assertEquals(keys.length - 1, list.size());
+            for (int i = 0; i < keys.length; i++) {
+                if (i != removed) {
+                    assertEquals("value" + keys[i], list.get(keys[i]));
+                }
+            }
+        }
+
+        KeyValueList list = fullChain(keys);
+        assertEquals("value" + keys[0], list.remove(keys[0]));
+        assertEquals("value" + keys[last], list.remove(keys[last]));
+        assertEquals("value" + keys[3], list.remove(keys[3]));
+        assertEquals(keys[last - 1], list.frontKey());
+        assertEquals(keys.length - 3, list.size());
+        assertNull(list.put(keys[0], "again"));
+        assertEquals(keys[0], list.frontKey());
+        assertEquals("again", list.get(keys[0]));
+    }
+
+    @Test
+    void removeAcrossUntreeifyThreshold() {
+        String[] keys = HashTableTest.collidingKeys(KeyValueList.TREEIFY_THRESHOLD + 1);
+        KeyValueList list = new KeyValueList();
+        for (var key : keys) {
+            list.put(key, "value" + key);
+        }
+        assertTrue(list.treeified());
+        int next = 0;
+        while (list.size() >= KeyValueList.UNTREEIFY_THRESHOLD) {
+            assertTrue(list.treeified());
+            assertEquals("value" + keys[next], list.remove(keys[next]));
+            next++;
+        }
+        assertFalse(list.treeified());
+        assertEquals(KeyValueList.UNTREEIFY_THRESHOLD - 1, list.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i < next ? null : "value" + keys[i], list.get(keys[i]));
+        }
+        int middle = (next + keys.length) / 2;
+        assertEquals("value" + keys[middle], list.remove(keys[middle]));
+        assertEquals("value" + keys[keys.length - 1], list.remove(keys[keys.length - 1]));
+        assertEquals(list.frontValue(), list.remove(list.frontKey()));
+        assertEquals(KeyValueList.UNTREEIFY_THRESHOLD - 4, list.size());
+        while (!list.empty()) {
+            assertNotNull(list.remove(list.frontKey()));
+        }
+        for (var key : keys) {
+            assertFalse(list.contains(key));
+        }
+    }
+
+    @Test
+    void moveFrontTo() {
+        KeyValueList source = new KeyValueList();
+        KeyValueList target = new KeyValueList();
+        String[] keys = HashTableTest.collidingKeys(20);
+        for (var key : keys) {
+            source.put(key, key);
+        }
+        target.put("other", "other");
+        while (!source.empty()) {
+            source.moveFrontTo(target);
+        }
+        assertEquals(21, target.size());
+        assertTrue(target.treeified());
+        for (var key : keys) {
+            assertEquals(key, target.get(key));
+        }
+
+        KeyValueList shortSource = new KeyValueList();
+        KeyValueList shortTarget = new KeyValueList();
+        for (Integer i = 0; i < 5; i++) {
+            shortSource.put(i.toString(), "value" + i);
+        }
+        shortSource.moveFrontTo(shortTarget);
+        shortSource.moveFrontTo(shortTarget);
+        assertEquals(3, shortSource.size());
+        assertEquals(2, shortTarget.size());
+        assertEquals("value4", shortTarget.get("4"));
+        assertEquals("value3", shortTarget.frontValue());
+        assertNull(shortSource.get("4"));
+        assertEquals("value2", shortSource.frontValue());
+    }
+
+    @Test
+    void nodeIsMapEntry() {
+        KeyValueList list = new KeyValueList();
+        list.put("key", "value");
+        list.put("other", null);
+        var node = list.head();
+        assertNotNull(node);
+        assertEquals(new AbstractMap.SimpleEntry<>("other", null), node);
+        assertEquals(node, new AbstractMap.SimpleEntry<>("other", null));
+        assertEquals(new AbstractMap.SimpleEntry<>("other", null).hashCode(), node.hashCode());
+        var next = node.next();
+        assertNotNull(next);
+        assertEquals(Map.entry("key", "value"), next);
+        assertEquals(next, Map.entry("key", "value"));
+        assertEquals(Map.entry("key", "value").hashCode(), next.hashCode());
+        assertNotEquals(Map.entry("key", "other"), next);
+        assertNotEquals(node, next);
+        assertEquals(Set.of(Map.entry("key", "value")), Set.of(next));
+    }
+
+    @Test
+    void treeIterator() {
+        KeyValueList list = new KeyValueList();
+        list.put("1", "2");
+        assertFalse(list.treeIterator().hasNext());
+        String[] keys = HashTableTest.collidingKeys(KeyValueList.TREEIFY_THRESHOLD + 1);
+        KeyValueList tree = new KeyValueList();
+        for (var key : keys) {
+            tree.put(key, "value" + key);
+        }
+        assertTrue(tree.treeified());
+        assertNull(tree.head());
+        var found = new HashMap<String, String>();
+        for (var iterator = tree.treeIterator(); iterator.hasNext(); ) {
+            var entry = iterator.next();
+            found.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(keys.length, found.size());
+        for (var key : keys) {
+            assertEquals("value" + key, found.get(key));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package ru.hse.aabukov.hashtable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedHashTableTest {
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("mapped-hash-table");
+        path = directory.resolve("table");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void putGetRemove() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            assertEquals(0, table.size());
+            assertNull(table.put("1", "a"));
+            assertNull(table.put("\u043a\u043b\u044e\u0447", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435"));
+            assertNull(table.put("empty", null));
+            assertEquals(3, table.size());
+            assertEquals("a", table.put("1", "b"));
+            assertEquals("b", table.get("1"));
+            assertEquals("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435", table.get("\u043a\u043b\u044e\u0447"));
+            assertTrue(table.contains("empty"));
+            assertNull(table.get("empty"));
+            assertFalse(table.contains("2"));
+            assertEquals("b", table.remove("1"));
+            assertNull(table.remove("1"));
+            assertEquals(2, table.size());
+        }
+    }
+
+    @Test
+    void manyKeys() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            for (Integer i = 0; i < 10000; i++) {
+                assertNull(table.put(i.toString(), i.toString()));
+            }
+            for (Integer i = 0; i < 10000; i += 2) {
+                assertEquals(i.toString(), table.remove(i.toString()));
+            }
+            assertEquals(5000, table.size());
+            for (Integer i = 0; i < 10000; i++) {
+                assertEquals(i % 2 == 0 ? null : i.toString(), table.get(i.toString()));
+            }
+        }
+    }
+
+    @Test
+    void collidingKeys() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            String[] keys = {"Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa"};
+            for (var key : keys) {
+                table.put(key, key);
+            }
+            assertEquals("BB", table.remove("BB"));
+            for (var key : keys) {
+                assertEquals(key.equals("BB") ? null : key, table.get(key));
+            }
+        }
+    }
+
+    @Test
+    void reopen() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            for (Integer i = 0; i < 2000; i++) {
+                table.put(i.toString(), "value" + i);
+            }
+            table.remove("0");
+        }
+        try (var table = new MappedHashTable(path)) {
+            assertEquals(1999, table.size());
+            assertNull(table.get("0"));
+            for (Integer i = 1; i < 2000; i++) {
+                assertEquals("value" + i, table.get(i.toString()));
+            }
+        }
+    }
+
+    @Test
+    void compact() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            for (Integer i = 0; i < 100; i++) {
+                table.put(i.toString(), "first");
+                table.put(i.toString(), "second");
+            }
+            table.remove("0");
+            assertTrue(table.garbageSize() > 0);
+            table.compact();
+            assertEquals(0, table.garbageSize());
+            assertEquals(99, table.size());
+            for (Integer i = 1; i < 100; i++) {
+                assertEquals("second", table.get(i.toString()));
+            }
+            table.put("0", "third");
+            assertEquals("third", table.get("0"));
+        }
+        try (var table = new MappedHashTable(path)) {
+            assertEquals(100, table.size());
+            assertEquals("second", table.get("1"));
+        }
+    }
+
+    private void putWithGarbage(MappedHashTable table) throws IOException {
+        for (Integer i = 0; i < 100; i++) {
+            table.put(i.toString(), "first");
+            table.put(i.toString(), "second");
+        }
+    }
+
+    private void assertSecondValues(MappedHashTable table) {
+        assertEquals(100, table.size());
+        for (Integer i = 0; i < 100; i++) {
+            assertEquals("second", table.get(i.toString()));
+        }
+    }
+
+    @Test
+    void failedCompactLeavesTable() throws IOException {
+        var blocker = directory.resolve("table.index.compacted");
+        try (var table = new MappedHashTable(path)) {
+            putWithGarbage(table);
+            long garbage = table.garbageSize();
+            Files.createDirectory(blocker);
+            Files.write(blocker.resolve("file"), new byte[1]);
+            assertThrows(IOException.class, table::compact);
+            assertFalse(Files.exists(directory.resolve("table.tmp")));
+            assertFalse(Files.exists(directory.resolve("table.index.tmp")));
+            assertEquals(garbage, table.garbageSize());
+            assertSecondValues(table);
+            table.put("100", "second");
+        }
+        Files.delete(blocker.resolve("file"));
+        Files.delete(blocker);
+        try (var table = new MappedHashTable(path)) {
+            assertEquals("second", table.get("100"));
+            table.remove("100");
+            assertSecondValues(table);
+        }
+    }
+
+    @Test
+    void interruptedCompactIsFinished() throws IOException {
+        var indexPath = directory.resolve("table.index");
+        var oldData = directory.resolve("old");
+        var oldIndex = directory.resolve("old.index");
+        var newData = directory.resolve("new");
+        var newIndex = directory.resolve("new.index");
+        try (var table = new MappedHashTable(path)) {
+            putWithGarbage(table);
+        }
+        Files.copy(path, oldData);
+        Files.copy(indexPath, oldIndex);
+        try (var table = new MappedHashTable(path)) {
+            table.compact();
+        }
+        Files.copy(path, newData);
+        Files.copy(indexPath, newIndex);
+        for (boolean dataMoved : new boolean[]{false, true}) {
+            Files.copy(dataMoved ? newData : oldData, path, StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(oldIndex, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            if (!dataMoved) {
+                Files.copy(newData, directory.resolve("table.tmp"));
+            }
+            Files.copy(newIndex, directory.resolve("table.index.compacted"));
+            try (var table = new MappedHashTable(path)) {
+                assertEquals(0, table.garbageSize());
+                assertSecondValues(table);
+            }
+            assertFalse(Files.exists(directory.resolve("table.tmp")));
+            assertFalse(Files.exists(directory.resolve("table.index.compacted")));
+        }
+    }
+
+    @Test
+    void clear() throws IOException {
+        try (var table = new MappedHashTable(path)) {
+            for (Integer i = 0; i < 2000; i++) {
+                table.put(i.toString(), i.toString());
+            }
+            table.clear();
+            assertEquals(0, table.size());
+            assertNull(table.get("1"));
+            table.put("1", "1");
+            assertEquals("1", table.get("1"));
+        }
+    }
+
+    @Test
+    void notATable() throws IOException {
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        Files.write(directory.resolve("table.index"), new byte[16]);
+        assertThrows(IOException.class, () -> new MappedHashTable(path));
+    }
+}
@@ -0,0 +1,79 @@
+package ru.hse.aabukov.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAddressingTableTest {
+
+    OpenAddressingTable generateId(int count) {
+        OpenAddressingTable table = new OpenAddressingTable(8, 0.75f);
+        for (Integer i = 1; i <= count; i++) {
+            table.put(i.toString(), i.toString());
+        }
+        return table;
+    }
+
+    @Test
+    void size() {
+        assertEquals(0, new OpenAddressingTable(8, 0.75f).size());
+        assertEquals(10, generateId(10).size());
+        assertEquals(1000, generateId(1000).size());
+    }
+
+    @Test
+    void put() {
+        OpenAddressingTable table = new OpenAddressingTable(8, 0.75f);
+        assertNull(table.put("1", "a"));
+        assertEquals("a", table.put("1", "b"));
+        assertEquals("b", table.get("1"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void getAfterExpand() {
+        OpenAddressingTable table = generateId(1000);
+        for (Integer i = 1; i <= 1000; i++) {
+            assertEquals(i.toString(), table.get(i.toString()));
+        }
+        assertNull(table.get("0"));
+        assertFalse(table.contains("1001"));
+    }
+
+    @Test
+    void collidingKeys() {
+        OpenAddressingTable table = new OpenAddressingTable(8, 0.75f);
+        String[] keys = {"Aa", "BB", "AaAa", "BBBB", "AaBB", "BBAa"};
+        for (var key : keys) {
+            assertNull(table.put(key, key));
+        }
+        assertEquals("BB", table.remove("BB"));
+        assertNull(table.get("BB"));
+        assertEquals("Aa", table.get("Aa"));
+        assertEquals("AaAa", table.remove("AaAa"));
+        for (var key : new String[]{"BBBB", "AaBB", "BBAa"}) {
+            assertEquals(key, table.get(key));
+        }
+    }
+
+    @Test
+    void remove() {
+        OpenAddressingTable table = generateId(100);
+        for (Integer i = 1; i <= 100; i += 2) {
+            assertEquals(i.toString(), table.remove(i.toString()));
+            assertNull(table.remove(i.toString()));
+        }
+        assertEquals(50, table.size());
+        for (Integer i = 2; i <= 100; i += 2) {
+            assertEquals(i.toString(), table.get(i.toString()));
+        }
+    }
+
+    @Test
+    void clear() {
+        OpenAddressingTable table = generateId(100);
+        table.clear();
+        assertEquals(0, table.size());
+        assertNull(table.get("1"));
+    }
+}
@@ -0,0 +1,48 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares searching for thousands of keywords in a text with {@link AhoCorasick}, sequentially and in parallel,
+ * with checking every substring of the text up to the longest keyword by {@link Trie#contains}
+ */
+public class AhoCorasickBenchmark {
+    private static final int KEYWORDS_NUMBER = 5000;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    public static void main(String[] args) {
+        int length = Measurements.count(args, 20_000_000);
+        var keywords = new Trie();
+        keywords.addAll(Arrays.asList(Measurements.randomWords(KEYWORDS_NUMBER, 42)));
+        var matcher = keywords.compileMatcher();
+
+        var random = new Random(43);
+        var words = Measurements.randomWords(KEYWORDS_NUMBER * 20, 44);
+        var builder = new StringBuilder(length + 20);
+        while (builder.length() < length) {
+            builder.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        var text = builder.toString();
+
+        System.out.printf("%d keywords, %d characters, %d occurrences%n", keywords.size(), text.length(),
+                matcher.findAll(text).size());
+        Measurements.time("AhoCorasick.scan", 3, 10, () -> {
+            var checksum = new long[1];
+            matcher.scan(text, (start, end, pattern) -> checksum[0] += end);
+            return checksum[0];
+        });
+        Measurements.time("AhoCorasick.findAllParallel", 3, 10, () -> matcher.findAllParallel(text, CHUNK_SIZE).size());
+        int maximalLength = matcher.maximalLength();
+        var prefix = text.substring(0, Math.min(text.length(), length / 10));
+        Measurements.time("Trie.contains, a tenth of the text", 1, 3, () -> {
+            long found = 0;
+            for (int start = 0; start < prefix.length(); start++) {
+                for (int end = start + 1; end <= Math.min(prefix.length(), start + maximalLength); end++) {
+                    if (keywords.contains(prefix.substring(start, end))) {
+                        found++;
+                    }
+                }
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,37 @@
+import java.util.Arrays;
+
+/** Compares building a {@link Trie} by adding strings one by one with {@link Trie#addAll} */
+public class BulkBuildBenchmark {
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Arrays.asList(Measurements.randomWords(count, 42));
+        var sorted = Measurements.randomWords(count, 42);
+        Arrays.sort(sorted);
+        var sortedWords = Arrays.asList(sorted);
+
+        Measurements.time("Trie.add one by one", 3, 10, () -> {
+            var trie = new Trie();
+            for (var word : words) {
+                trie.add(word);
+            }
+            return trie.size();
+        });
+        Measurements.time("Trie.add one by one, sorted", 3, 10, () -> {
+            var trie = new Trie();
+            for (var word : sortedWords) {
+                trie.add(word);
+            }
+            return trie.size();
+        });
+        Measurements.time("Trie.addAll", 3, 10, () -> {
+            var trie = new Trie();
+            trie.addAll(words);
+            return trie.size();
+        });
+        Measurements.time("Trie.addAll, sorted", 3, 10, () -> {
+            var trie = new Trie();
+            trie.addAll(sortedWords);
+            return trie.size();
+        });
+    }
+}
@@ -0,0 +1,50 @@
+import java.util.Arrays;
+import java.util.HashSet;
+
+/** Reports memory per stored string and lookup time of {@link Trie} with a {@link HashSet} as a reference */
+public class CompactTrieBenchmark {
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Measurements.randomWords(count, 42);
+        var list = Arrays.asList(words);
+
+        long before = Measurements.usedMemory();
+        var trie = new Trie();
+        trie.addAll(list);
+        long trieMemory = Measurements.usedMemory() - before;
+
+        before = Measurements.usedMemory();
+        var set = new HashSet<>(list);
+        long setMemory = Measurements.usedMemory() - before;
+
+        System.out.printf("%d words, %d distinct%n", count, trie.size());
+        System.out.printf("Trie: %.1f bytes per string%n", (double) trieMemory / trie.size());
+        System.out.printf("HashSet: %.1f bytes per string%n", (double) setMemory / set.size());
+
+        Measurements.time("Trie.contains, all words", 3, 10, () -> {
+            long found = 0;
+            for (var word : words) {
+                if (trie.contains(word)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+        Measurements.time("Trie.howManyStartWithPrefix, all words", 3, 10, () -> {
+            long total = 0;
+            for (var word : words) {
+                total += trie.howManyStartWithPrefix(word);
+            }
+            return total;
+        });
+        Measurements.time("HashSet.contains, all words", 3, 10, () -> {
+            long found = 0;
+            for (var word : words) {
+                if (set.contains(word)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,137 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reports the throughput of lookups made by several threads while one more thread adds and removes words.
+ * {@link ConcurrentTrie} is compared with {@link Trie} guarded by a read-write lock
+ */
+public class ConcurrentTrieBenchmark {
+    private static final long DURATION_MILLISECONDS = 2000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Measurements.randomWords(count, 42);
+        var updates = Measurements.randomWords(count / 10, 43);
+
+        var concurrentTrie = new ConcurrentTrie();
+        concurrentTrie.addAll(Arrays.asList(words));
+        var lockedTrie = new LockedTrie();
+        lockedTrie.addAll(Arrays.asList(words));
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int readers = 1; readers <= Math.max(1, processors - 1); readers *= 2) {
+            measure("ConcurrentTrie", concurrentTrie, concurrentTrie::howManyStartWithPrefix, readers, words, updates);
+            measure("Trie with a read-write lock", lockedTrie, lockedTrie::howManyStartWithPrefix, readers,
+                    words, updates);
+        }
+    }
+
+    private static void measure(@NotNull String name, @NotNull UniterableSet<String> target,
+                                @NotNull ToIntFunction<String> prefixCount, int readers,
+                                @NotNull String[] words, @NotNull String[] updates) throws InterruptedException {
+        var stop = new AtomicBoolean();
+        var reads = new LongAdder();
+        var writes = new LongAdder();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < readers; i++) {
+            threads.add(new Thread(() -> {
+                var random = ThreadLocalRandom.current();
+                long operations = 0;
+                long checksum = 0;
+                while (!stop.get()) {
+                    var word = words[random.nextInt(words.length)];
+                    if (operations % 2 == 0) {
+                        checksum += target.contains(word) ? 1 : 0;
+                    } else {
+                        checksum += prefixCount.applyAsInt(word.substring(0, Math.min(3, word.length())));
+                    }
+                    operations++;
+                }
+                reads.add(operations);
+                Measurements.consume(checksum);
+            }));
+        }
+        threads.add(new Thread(() -> {
+            long operations = 0;
+            while (!stop.get()) {
+                var word = updates[(int) (operations / 2 % updates.length)];
+                if (operations % 2 == 0) {
+                    target.add(word);
+                } else {
+                    target.remove(word);
+                }
+                operations++;
+            }
+            writes.add(operations);
+        }));
+        threads.forEach(Thread::start);
+        Thread.sleep(DURATION_MILLISECONDS);
+        stop.set(true);
+        for (var thread : threads) {
+            thread.join();
+        }
+        System.out.printf("%-30s %2d readers: %8.0f reads/ms %8.0f writes/ms%n", name, readers,
+                (double) reads.sum() / DURATION_MILLISECONDS, (double) writes.sum() / DURATION_MILLISECONDS);
+    }
+
+    private static class LockedTrie implements UniterableSet<String> {
+        private final @NotNull Trie trie = new Trie();
+        private final @NotNull ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        @Override
+        public boolean add(@NotNull String element) {
+            lock.writeLock().lock();
+            try {
+                return trie.add(element);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(@NotNull String element) {
+            lock.readLock().lock();
+            try {
+                return trie.contains(element);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(@NotNull String element) {
+            lock.writeLock().lock();
+            try {
+                return trie.remove(element);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.readLock().lock();
+            try {
+                return trie.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int howManyStartWithPrefix(@NotNull String prefix) {
+            lock.readLock().lock();
+            try {
+                return trie.howManyStartWithPrefix(prefix);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/** Compares lookups in a {@link Trie} with its frozen form kept on the heap and mapped from a file */
+public class FrozenTrieBenchmark {
+    public static void main(String[] args) throws IOException {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Measurements.randomWords(count, 42);
+        var trie = new Trie();
+        trie.addAll(Arrays.asList(words));
+
+        long start = System.nanoTime();
+        var frozen = trie.freeze();
+        System.out.printf("%d distinct words frozen in %.1f ms%n", trie.size(), (System.nanoTime() - start) / 1e6);
+
+        var file = Files.createTempFile("frozen-trie", ".dat");
+        try {
+            try (var out = Files.newOutputStream(file)) {
+                frozen.serialize(out);
+            }
+            System.out.printf("Frozen trie: %.1f bytes per string%n", (double) Files.size(file) / trie.size());
+            var mapped = FrozenTrie.map(file);
+
+            Measurements.time("Trie.contains, all words", 3, 10, () -> {
+                long found = 0;
+                for (var word : words) {
+                    if (trie.contains(word)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            Measurements.time("FrozenTrie.contains, all words", 3, 10, () -> {
+                long found = 0;
+                for (var word : words) {
+                    if (frozen.contains(word)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            Measurements.time("Mapped FrozenTrie.contains, all words", 3, 10, () -> {
+                long found = 0;
+                for (var word : words) {
+                    if (mapped.contains(word)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+            Measurements.time("FrozenTrie.howManyStartWithPrefix, all words", 3, 10, () -> {
+                long total = 0;
+                for (var word : words) {
+                    total += frozen.howManyStartWithPrefix(word);
+                }
+                return total;
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
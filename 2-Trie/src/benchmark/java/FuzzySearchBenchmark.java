@@ -0,0 +1,75 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/** Compares {@link Trie#withinDistance} with computing the edit distance to every word of the dictionary */
+public class FuzzySearchBenchmark {
+    private static final int QUERIES_NUMBER = 20;
+
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Measurements.randomWords(count, 42);
+        var trie = new Trie();
+        trie.addAll(Arrays.asList(words));
+        var dictionary = new LinkedHashSet<>(Arrays.asList(words)).toArray(new String[0]);
+
+        var random = new Random(43);
+        var queries = new String[QUERIES_NUMBER];
+        for (int i = 0; i < queries.length; i++) {
+            var word = new StringBuilder(words[random.nextInt(words.length)]);
+            word.setCharAt(random.nextInt(word.length()), (char) ('a' + random.nextInt(26)));
+            word.insert(random.nextInt(word.length() + 1), (char) ('a' + random.nextInt(26)));
+            queries[i] = word.toString();
+        }
+
+        for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+            int distance = maxDistance;
+            int found = 0;
+            for (var query : queries) {
+                found += trie.withinDistance(query, distance, Integer.MAX_VALUE).size();
+            }
+            System.out.printf("distance %d: %d words found for %d queries%n", distance, found, queries.length);
+            Measurements.time("Trie.withinDistance, distance " + distance, 3, 10, () -> {
+                long total = 0;
+                for (var query : queries) {
+                    total += trie.withinDistance(query, distance, Integer.MAX_VALUE).size();
+                }
+                return total;
+            });
+            Measurements.time("Brute force, distance " + distance, 1, 3, () -> {
+                long total = 0;
+                for (var query : queries) {
+                    var result = new ArrayList<String>();
+                    for (var word : dictionary) {
+                        if (distance(query, word) <= distance) {
+                            result.add(word);
+                        }
+                    }
+                    total += result.size();
+                }
+                return total;
+            });
+        }
+    }
+
+    private static int distance(@NotNull String first, @NotNull String second) {
+        var row = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(diagonal + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1),
+                        Math.min(above, row[j - 1]) + 1);
+                diagonal = above;
+            }
+        }
+        return row[second.length()];
+    }
+}
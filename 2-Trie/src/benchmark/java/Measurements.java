@@ -0,0 +1,83 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Helpers for benchmarks of this module. JMH can not be used here because it does not accept
+ * benchmark classes in the default package.
+ */
+class Measurements {
+    private static final int GC_ROUNDS = 5;
+    private static volatile long sink;
+
+    private Measurements() {
+    }
+
+    /** Returns the number of bytes used on the heap after garbage collection */
+    static long usedMemory() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Runs the action several times for warm up and then prints the average time of the measured runs.
+     * Values returned by all runs are consumed, so the JIT can not eliminate the measured work
+     *
+     * @param name     a name to print
+     * @param warmups  the number of runs which are not measured
+     * @param runs     the number of measured runs
+     * @param action   the action to measure, it returns a value that depends on all its results
+     */
+    static void time(@NotNull String name, int warmups, int runs, @NotNull LongSupplier action) {
+        long checksum = 0;
+        for (int i = 0; i < warmups; i++) {
+            checksum += action.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            checksum += action.getAsLong();
+        }
+        double milliseconds = (System.nanoTime() - start) / 1e6 / runs;
+        consume(checksum);
+        System.out.printf("%-40s %10.2f ms%n", name, milliseconds);
+    }
+
+    /** Writes the value into a volatile field, so the code that computes it can not be eliminated */
+    static void consume(long value) {
+        sink += value;
+    }
+
+    /** Returns the first command line argument as a number or the default value */
+    static int count(@NotNull String[] args, int defaultCount) {
+        return args.length > 0 ? Integer.parseInt(args[0]) : defaultCount;
+    }
+
+    /** Returns random words of lowercase latin letters, about a half of words share a prefix with another one */
+    static @NotNull String[] randomWords(int count, long seed) {
+        var random = new Random(seed);
+        var words = new String[count];
+        var builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            if (i > 0 && random.nextBoolean()) {
+                var previous = words[random.nextInt(i)];
+                builder.append(previous, 0, random.nextInt(previous.length() + 1));
+            }
+            int length = 3 + random.nextInt(10);
+            while (builder.length() < length) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = builder.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,85 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reports node count, memory per stored string and lookup time of {@link RadixTrie} and {@link Trie}
+ * on short random words and on long URL-like keys with long common prefixes
+ */
+public class RadixTrieBenchmark {
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        measure("random words", Measurements.randomWords(count, 42));
+        measure("URLs", urls(count, 42));
+    }
+
+    /** Returns keys of a few hosts, each path is built from a few of the given number of segments */
+    private static @NotNull String[] urls(int count, long seed) {
+        var random = new Random(seed);
+        var segments = Measurements.randomWords(Math.max(1, count / 100), seed);
+        var urls = new String[count];
+        var builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            builder.append("https://www.host").append(random.nextInt(16)).append(".example.com");
+            int depth = 2 + random.nextInt(4);
+            for (int j = 0; j < depth; j++) {
+                builder.append('/').append(segments[random.nextInt(Math.min(segments.length, 1 << (3 * j + 3)))]);
+            }
+            urls[i] = builder.toString();
+        }
+        return urls;
+    }
+
+    private static void measure(@NotNull String name, @NotNull String[] words) {
+        var list = Arrays.asList(words);
+        long before = Measurements.usedMemory();
+        var trie = new Trie();
+        add(trie, list);
+        long trieMemory = Measurements.usedMemory() - before;
+
+        before = Measurements.usedMemory();
+        var radixTrie = new RadixTrie();
+        add(radixTrie, list);
+        long radixTrieMemory = Measurements.usedMemory() - before;
+
+        System.out.printf("%s: %d keys, %d distinct%n", name, words.length, trie.size());
+        System.out.printf("Trie: %d nodes, %.1f bytes per string%n", trie.nodesCount(),
+                (double) trieMemory / trie.size());
+        System.out.printf("RadixTrie: %d nodes, %.1f bytes per string%n", radixTrie.nodesCount(),
+                (double) radixTrieMemory / radixTrie.size());
+
+        time("Trie.contains", words, trie::contains);
+        time("RadixTrie.contains", words, radixTrie::contains);
+        time("Trie.howManyStartWithPrefix", words, prefixCount(trie::howManyStartWithPrefix));
+        time("RadixTrie.howManyStartWithPrefix", words, prefixCount(radixTrie::howManyStartWithPrefix));
+    }
+
+    /** Adds words one by one, so that both tries are built by the same kind of updates */
+    private static void add(@NotNull UniterableSet<String> set, @NotNull List<String> words) {
+        for (var word : words) {
+            set.add(word);
+        }
+    }
+
+    /** Asks for a prefix of two thirds of a word, which usually ends inside an edge of a radix trie */
+    private static @NotNull Predicate<String> prefixCount(@NotNull ToIntFunction<String> count) {
+        return word -> count.applyAsInt(word.substring(0, word.length() * 2 / 3)) > 0;
+    }
+
+    private static void time(@NotNull String name, @NotNull String[] words, @NotNull Predicate<String> lookup) {
+        Measurements.time(name + ", all keys", 3, 10, () -> {
+            long found = 0;
+            for (var word : words) {
+                if (lookup.test(word)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/** Compares the size and the speed of {@link Trie#serialize} with {@link Trie#writeTo} and of reading them back */
+public class SerializationBenchmark {
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        var trie = new Trie();
+        trie.addAll(Arrays.asList(Measurements.randomWords(count, 42)));
+
+        var output = new ByteArrayOutputStream();
+        run(() -> trie.serialize(output));
+        var original = output.toByteArray();
+        output.reset();
+        run(() -> trie.writeTo(output));
+        var compact = output.toByteArray();
+        System.out.printf("%d distinct words, original format %d bytes, compact format %d bytes%n",
+                trie.size(), original.length, compact.length);
+
+        Measurements.time("Trie.serialize", 3, 10, () -> {
+            output.reset();
+            run(() -> trie.serialize(output));
+            return output.size();
+        });
+        Measurements.time("Trie.writeTo", 3, 10, () -> {
+            output.reset();
+            run(() -> trie.writeTo(output));
+            return output.size();
+        });
+        Measurements.time("Trie.deserialize", 3, 10, () -> {
+            var copy = new Trie();
+            run(() -> copy.deserialize(new ByteArrayInputStream(original)));
+            return copy.size();
+        });
+        Measurements.time("Trie.readFrom", 3, 10, () -> {
+            var copy = new Trie();
+            run(() -> copy.readFrom(new ByteArrayInputStream(compact)));
+            return copy.size();
+        });
+    }
+
+    private static void run(IOAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,72 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Reports memory per stored key and lookup time of {@link ByteTrie} and {@link CodePointTrie}
+ * against {@link GenericTrie} that reads the same keys through {@link KeyUnits}
+ */
+public class UnitTrieBenchmark {
+    public static void main(String[] args) {
+        int count = Measurements.count(args, 1_000_000);
+        var words = Measurements.randomWords(count, 42);
+        var keys = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            keys[i] = words[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        long before = Measurements.usedMemory();
+        var byteTrie = new ByteTrie();
+        for (var key : keys) {
+            byteTrie.add(key);
+        }
+        long byteTrieMemory = Measurements.usedMemory() - before;
+
+        before = Measurements.usedMemory();
+        var genericByteTrie = new GenericTrie<>(KeyUnits.BYTES);
+        for (var key : keys) {
+            genericByteTrie.add(key);
+        }
+        long genericByteTrieMemory = Measurements.usedMemory() - before;
+
+        before = Measurements.usedMemory();
+        var codePointTrie = new CodePointTrie();
+        for (var word : words) {
+            codePointTrie.add(word);
+        }
+        long codePointTrieMemory = Measurements.usedMemory() - before;
+
+        before = Measurements.usedMemory();
+        var genericCodePointTrie = new GenericTrie<>(KeyUnits.STRING_CODE_POINTS);
+        for (var word : words) {
+            genericCodePointTrie.add(word);
+        }
+        long genericCodePointTrieMemory = Measurements.usedMemory() - before;
+
+        System.out.printf("%d keys, %d distinct%n", count, byteTrie.size());
+        System.out.printf("ByteTrie: %.1f bytes per key%n", (double) byteTrieMemory / byteTrie.size());
+        System.out.printf("GenericTrie<byte[]>: %.1f bytes per key%n",
+                (double) genericByteTrieMemory / genericByteTrie.size());
+        System.out.printf("CodePointTrie: %.1f bytes per key%n", (double) codePointTrieMemory / codePointTrie.size());
+        System.out.printf("GenericTrie<String>: %.1f bytes per key%n",
+                (double) genericCodePointTrieMemory / genericCodePointTrie.size());
+
+        time("ByteTrie.contains", keys, byteTrie::contains);
+        time("GenericTrie<byte[]>.contains", keys, genericByteTrie::contains);
+        time("CodePointTrie.contains", words, codePointTrie::contains);
+        time("GenericTrie<String>.contains", words, genericCodePointTrie::contains);
+    }
+
+    private static <K> void time(@NotNull String name, @NotNull K[] keys, @NotNull Predicate<K> lookup) {
+        Measurements.time(name + ", all keys", 3, 10, () -> {
+            long found = 0;
+            for (var key : keys) {
+                if (lookup.test(key)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+}
@@ -0,0 +1,281 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * An Aho-Corasick automaton compiled from a {@link Trie}, it finds all occurrences of all strings of the trie
+ * in one pass over a text. States are numbered in breadth-first order, so the children of a state have
+ * consecutive numbers sorted by their characters and a transition is a binary search among them.
+ * A failure link leads to the state of the longest proper suffix that is a prefix of some string,
+ * and an output link leads to the nearest terminal state along the failure links.
+ * Unless there are too many states and distinct characters, the failure links are also folded into a table
+ * of transitions by every character of the strings, so a character of a text costs one lookup.
+ * The empty string is never reported.
+ */
+public class AhoCorasick {
+    private static final int MAXIMAL_TABLE_SIZE = 1 << 22;
+    private final @NotNull char[] labels;
+    private final @NotNull int[] firstChild;
+    private final @NotNull int[] childrenCount;
+    private final @NotNull int[] failure;
+    private final @NotNull int[] output;
+    private final @NotNull int[] alphabet = new int[Character.MAX_VALUE + 1];
+    private final int alphabetSize;
+    private final @Nullable int[] table;
+    private final @NotNull String[] patterns;
+    private final int maximalLength;
+
+    /**
+     * Creates an automaton from states in breadth-first order
+     *
+     * @param labels        the character of the transition into every state
+     * @param firstChild    the number of the first child of every state
+     * @param childrenCount the number of children of every state
+     * @param patterns      the string of every terminal state, null for other states
+     */
+    AhoCorasick(@NotNull char[] labels, @NotNull int[] firstChild, @NotNull int[] childrenCount,
+                @NotNull String[] patterns) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childrenCount = childrenCount;
+        this.patterns = patterns;
+        int statesCount = labels.length;
+        failure = new int[statesCount];
+        output = new int[statesCount];
+        output[0] = -1;
+        int characters = 1;
+        for (int state = 1; state < statesCount; state++) {
+            if (alphabet[labels[state]] == 0) {
+                alphabet[labels[state]] = characters++;
+            }
+        }
+        alphabetSize = characters;
+        int length = 0;
+        for (int state = 0; state < statesCount; state++) {
+            for (int child = firstChild[state]; child < firstChild[state] + childrenCount[state]; child++) {
+                int link = 0;
+                if (state != 0) {
+                    link = transition(failure[state], labels[child]);
+                }
+                failure[child] = link;
+                output[child] = patterns[link] != null ? link : output[link];
+            }
+            if (patterns[state] != null) {
+                length = Math.max(length, patterns[state].length());
+            }
+        }
+        maximalLength = length;
+        table = (long) statesCount * alphabetSize <= MAXIMAL_TABLE_SIZE ? buildTable() : null;
+    }
+
+    /** Computes transitions of states in breadth-first order, a failure link always leads to a computed state */
+    private @NotNull int[] buildTable() {
+        var transitions = new int[labels.length * alphabetSize];
+        for (int state = 0; state < labels.length; state++) {
+            int row = state * alphabetSize;
+            if (state != 0) {
+                System.arraycopy(transitions, failure[state] * alphabetSize, transitions, row, alphabetSize);
+            }
+            for (int child = firstChild[state]; child < firstChild[state] + childrenCount[state]; child++) {
+                transitions[row + alphabet[labels[child]]] = child;
+            }
+        }
+        return transitions;
+    }
+
+    private int child(int state, char c) {
+        int low = firstChild[state];
+        int high = low + childrenCount[state] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < c) {
+                low = middle + 1;
+            } else if (labels[middle] > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int transition(int state, char c) {
+        if (table != null) {
+            return table[state * alphabetSize + alphabet[c]];
+        }
+        if (alphabet[c] == 0) {
+            return 0;
+        }
+        while (true) {
+            int next = child(state, c);
+            if (next >= 0 || state == 0) {
+                return Math.max(next, 0);
+            }
+            state = failure[state];
+        }
+    }
+
+    /** Reports all matches that end at the given position, the longest first */
+    private void report(int state, long end, @NotNull MatchConsumer consumer) {
+        if (patterns[state] == null) {
+            state = output[state];
+        }
+        for (; state > 0; state = output[state]) {
+            consumer.accept(end - patterns[state].length(), end, patterns[state]);
+        }
+    }
+
+    /** Returns the length of the longest string of the automaton */
+    public int maximalLength() {
+        return maximalLength;
+    }
+
+    /**
+     * Passes every occurrence of every string to the consumer ordered by its end, longer ones first
+     *
+     * @param text     a text to search in
+     * @param consumer a receiver of occurrences
+     */
+    public void scan(@NotNull CharSequence text, @NotNull MatchConsumer consumer) {
+        scan(text, 0, 0, text.length(), consumer);
+    }
+
+    /** Scans the text from the first position and reports occurrences that end after the report position */
+    private void scan(@NotNull CharSequence text, int from, int reportFrom, int to, @NotNull MatchConsumer consumer) {
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = transition(state, text.charAt(i));
+            if (i >= reportFrom && state != 0) {
+                report(state, i + 1, consumer);
+            }
+        }
+    }
+
+    /**
+     * Passes every occurrence of every string in the characters of the reader to the consumer ordered by
+     * its end, longer ones first. The reader is read through a buffer and is not closed
+     *
+     * @param reader   a text to search in
+     * @param consumer a receiver of occurrences
+     * @throws IOException if the reader fails
+     */
+    public void scan(@NotNull Reader reader, @NotNull MatchConsumer consumer) throws IOException {
+        var buffer = new char[1 << 13];
+        long position = 0;
+        int state = 0;
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                state = transition(state, buffer[i]);
+                if (state != 0) {
+                    report(state, position + i + 1, consumer);
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Returns all occurrences of all strings ordered by their ends, longer ones first
+     *
+     * @param text a text to search in
+     */
+    public @NotNull List<Match> findAll(@NotNull CharSequence text) {
+        var matches = new ArrayList<Match>();
+        scan(text, (start, end, pattern) -> matches.add(new Match(start, end, pattern)));
+        return matches;
+    }
+
+    /**
+     * Returns the same occurrences as {@link #findAll(CharSequence)} scanning chunks of the text in parallel.
+     * A chunk is scanned from the length of the longest string minus one before its beginning,
+     * so occurrences that cross the boundary are found by the chunk where they end
+     *
+     * @param text      a text to search in, it must not be changed during the search
+     * @param chunkSize the number of characters in a chunk
+     */
+    public @NotNull List<Match> findAllParallel(@NotNull CharSequence text, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        int length = text.length();
+        if (length <= chunkSize) {
+            return findAll(text);
+        }
+        int chunksCount = (int) ((length + (long) chunkSize - 1) / chunkSize);
+        return IntStream.range(0, chunksCount).parallel().mapToObj(chunk -> {
+            int from = chunk * chunkSize;
+            int to = (int) Math.min(length, (long) from + chunkSize);
+            var matches = new ArrayList<Match>();
+            scan(text, Math.max(0, from - Math.max(0, maximalLength - 1)), from, to,
+                    (start, end, pattern) -> matches.add(new Match(start, end, pattern)));
+            return matches;
+        }).flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /** A receiver of occurrences */
+    @FunctionalInterface
+    public interface MatchConsumer {
+        /**
+         * Receives an occurrence
+         *
+         * @param start   the position of the first character
+         * @param end     the position after the last character
+         * @param pattern the found string
+         */
+        void accept(long start, long end, @NotNull String pattern);
+    }
+
+    /** An occurrence of a string in a text */
+    public static final class Match {
+        private final long start;
+        private final long end;
+        private final @NotNull String pattern;
+
+        public Match(long start, long end, @NotNull String pattern) {
+            this.start = start;
+            this.end = end;
+            this.pattern = pattern;
+        }
+
+        /** Returns the position of the first character */
+        public long start() {
+            return start;
+        }
+
+        /** Returns the position after the last character */
+        public long end() {
+            return end;
+        }
+
+        /** Returns the found string */
+        public @NotNull String pattern() {
+            return pattern;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Match match = (Match) o;
+            return start == match.start && end == match.end && pattern.equals(match.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end, pattern);
+        }
+
+        @Override
+        public String toString() {
+            return pattern + "[" + start + ", " + end + ")";
+        }
+    }
+}
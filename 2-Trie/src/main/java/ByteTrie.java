@@ -0,0 +1,230 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A set of byte arrays, such as encoded URLs or binary identifiers, using tree-like finite automaton.
+ * Transitions of a node are sorted bytes with a parallel array of children, and keys are walked
+ * byte by byte without {@link KeyUnits}. Every method has a variant that takes a range of an array,
+ * so a part of a larger buffer is added or checked without copying it.
+ */
+public class ByteTrie implements UniterableSet<byte[]> {
+    private int size = 0;
+    private @NotNull Node root = new Node();
+
+    /**
+     * Adds a key into the trie
+     *
+     * @param key a key to add into the trie
+     * @return True if the trie did not contain the given key, false otherwise
+     */
+    @Override
+    public boolean add(@NotNull byte[] key) {
+        return insert(key, 0, key.length);
+    }
+
+    /**
+     * Adds a range of a key into the trie
+     *
+     * @param key    an array that contains the range
+     * @param offset the first index of the range
+     * @param length the number of bytes in the range
+     * @return True if the trie did not contain the given range, false otherwise
+     */
+    public boolean add(@NotNull byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        return insert(key, offset, offset + length);
+    }
+
+    /**
+     * Checks whether a key contains in the trie
+     *
+     * @param key a key to check
+     * @return True if the given key contains in the trie
+     */
+    @Override
+    public boolean contains(@NotNull byte[] key) {
+        var node = find(key, 0, key.length);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Checks whether a range of a key contains in the trie
+     *
+     * @param key    an array that contains the range
+     * @param offset the first index of the range
+     * @param length the number of bytes in the range
+     * @return True if the given range contains in the trie
+     */
+    public boolean contains(@NotNull byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        var node = find(key, offset, offset + length);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Removes a key from the trie
+     *
+     * @param key a key to remove
+     * @return true if the key was in the trie, false otherwise
+     */
+    @Override
+    public boolean remove(@NotNull byte[] key) {
+        return delete(key, 0, key.length);
+    }
+
+    /**
+     * Removes a range of a key from the trie
+     *
+     * @param key    an array that contains the range
+     * @param offset the first index of the range
+     * @param length the number of bytes in the range
+     * @return true if the range was in the trie, false otherwise
+     */
+    public boolean remove(@NotNull byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        return delete(key, offset, offset + length);
+    }
+
+    /** Returns a number of keys in the trie */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts a number of keys in the trie starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull byte[] prefix) {
+        var node = find(prefix, 0, prefix.length);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    /**
+     * Counts a number of keys in the trie starts with the given range of an array
+     *
+     * @param prefix an array that contains the range
+     * @param offset the first index of the range
+     * @param length the number of bytes in the range
+     */
+    public int howManyStartWithPrefix(@NotNull byte[] prefix, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, prefix.length);
+        var node = find(prefix, offset, offset + length);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    private Node find(@NotNull byte[] key, int from, int to) {
+        var currentNode = root;
+        for (int position = from; position < to && currentNode != null; position++) {
+            currentNode = currentNode.getTransition(key[position]);
+        }
+        return currentNode;
+    }
+
+    private boolean insert(@NotNull byte[] key, int from, int to) {
+        var currentNode = root;
+        int position = from;
+        for (; position < to; position++) {
+            var child = currentNode.getTransition(key[position]);
+            if (child == null) {
+                break;
+            }
+            currentNode.terminalSubtreeSum++;
+            currentNode = child;
+        }
+        if (position == to && currentNode.terminal) {
+            // counters are increased on the way down, so they are restored for an already contained key
+            var node = root;
+            for (int i = from; i < to; i++) {
+                node.terminalSubtreeSum--;
+                node = node.getTransition(key[i]);
+            }
+            return false;
+        }
+        for (; position < to; position++) {
+            currentNode.terminalSubtreeSum++;
+            currentNode = currentNode.addTransition(key[position]);
+        }
+        currentNode.terminal = true;
+        currentNode.terminalSubtreeSum++;
+        size++;
+        return true;
+    }
+
+    private boolean delete(@NotNull byte[] key, int from, int to) {
+        var node = find(key, from, to);
+        if (node == null || !node.terminal) {
+            return false;
+        }
+        size--;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum--;
+        for (int position = from; position < to; position++) {
+            var parent = currentNode;
+            currentNode = currentNode.getTransition(key[position]);
+            currentNode.terminalSubtreeSum--;
+            if (currentNode.terminalSubtreeSum == 0) {
+                parent.removeTransition(key[position]);
+                return true;
+            }
+        }
+        currentNode.terminal = false;
+        return true;
+    }
+
+    /** A node with edges sorted as signed bytes, the order does not matter as long as it is the same */
+    private static class Node {
+        private boolean terminal = false;
+        private int terminalSubtreeSum = 0;
+        private int transitionsCount = 0;
+        private byte[] edges;
+        private Node[] children;
+
+        private Node getTransition(byte unit) {
+            if (transitionsCount == 0) {
+                return null;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, unit);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        /** Adds a transition by a byte that is absent and returns the new child */
+        private @NotNull Node addTransition(byte unit) {
+            var child = new Node();
+            if (edges == null) {
+                edges = new byte[2];
+                children = new Node[2];
+            }
+            int slot = -Arrays.binarySearch(edges, 0, transitionsCount, unit) - 1;
+            if (transitionsCount == edges.length) {
+                edges = Arrays.copyOf(edges, transitionsCount * 2);
+                children = Arrays.copyOf(children, transitionsCount * 2);
+            }
+            System.arraycopy(edges, slot, edges, slot + 1, transitionsCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, transitionsCount - slot);
+            edges[slot] = unit;
+            children[slot] = child;
+            transitionsCount++;
+            return child;
+        }
+
+        private void removeTransition(byte unit) {
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, unit);
+            if (slot < 0) {
+                return;
+            }
+            transitionsCount--;
+            if (transitionsCount == 0) {
+                edges = null;
+                children = null;
+                return;
+            }
+            System.arraycopy(edges, slot + 1, edges, slot, transitionsCount - slot);
+            System.arraycopy(children, slot + 1, children, slot, transitionsCount - slot);
+            children[transitionsCount] = null;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A set of strings using tree-like finite automaton over code points, so a character outside
+ * the Basic Multilingual Plane is one transition rather than two. Offsets and lengths of strings are
+ * measured in chars, and a range that ends inside a surrogate pair includes the whole pair.
+ * Strings may also be given as ranges of arrays of code points. Transitions of a node are sorted
+ * code points with a parallel array of children, and keys are walked directly without {@link KeyUnits}
+ */
+public class CodePointTrie implements UniterableSet<String> {
+    private int size = 0;
+    private @NotNull Node root = new Node();
+
+    /**
+     * Adds a string into the trie
+     *
+     * @param key a string to add into the trie
+     * @return True if the trie did not contain the given string, false otherwise
+     */
+    @Override
+    public boolean add(@NotNull String key) {
+        return insert(key, 0, key.length());
+    }
+
+    /**
+     * Adds a range of a string into the trie
+     *
+     * @param key    a string that contains the range
+     * @param offset the first char of the range
+     * @param length the number of chars in the range
+     * @return True if the trie did not contain the given range, false otherwise
+     */
+    public boolean add(@NotNull String key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length());
+        return insert(key, offset, offset + length);
+    }
+
+    /**
+     * Adds a string given by a range of code points into the trie
+     *
+     * @param codePoints an array that contains the range
+     * @param offset     the first index of the range
+     * @param length     the number of code points in the range
+     * @return True if the trie did not contain the given string, false otherwise
+     */
+    public boolean add(@NotNull int[] codePoints, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, codePoints.length);
+        return insert(codePoints, offset, offset + length);
+    }
+
+    /**
+     * Checks whether a string contains in the trie
+     *
+     * @param key a string to check
+     * @return True if the given string contains in the trie
+     */
+    @Override
+    public boolean contains(@NotNull String key) {
+        var node = find(key, 0, key.length());
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Checks whether a range of a string contains in the trie
+     *
+     * @param key    a string that contains the range
+     * @param offset the first char of the range
+     * @param length the number of chars in the range
+     * @return True if the given range contains in the trie
+     */
+    public boolean contains(@NotNull String key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length());
+        var node = find(key, offset, offset + length);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Checks whether a string given by a range of code points contains in the trie
+     *
+     * @param codePoints an array that contains the range
+     * @param offset     the first index of the range
+     * @param length     the number of code points in the range
+     * @return True if the given string contains in the trie
+     */
+    public boolean contains(@NotNull int[] codePoints, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, codePoints.length);
+        var node = find(codePoints, offset, offset + length);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Removes a string from the trie
+     *
+     * @param key a string to remove
+     * @return true if the string was in the trie, false otherwise
+     */
+    @Override
+    public boolean remove(@NotNull String key) {
+        return delete(key, 0, key.length());
+    }
+
+    /**
+     * Removes a range of a string from the trie
+     *
+     * @param key    a string that contains the range
+     * @param offset the first char of the range
+     * @param length the number of chars in the range
+     * @return true if the range was in the trie, false otherwise
+     */
+    public boolean remove(@NotNull String key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length());
+        return delete(key, offset, offset + length);
+    }
+
+    /**
+     * Removes a string given by a range of code points from the trie
+     *
+     * @param codePoints an array that contains the range
+     * @param offset     the first index of the range
+     * @param length     the number of code points in the range
+     * @return true if the string was in the trie, false otherwise
+     */
+    public boolean remove(@NotNull int[] codePoints, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, codePoints.length);
+        return delete(codePoints, offset, offset + length);
+    }
+
+    /** Returns a number of strings in the trie */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts a number of strings in the trie starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        var node = find(prefix, 0, prefix.length());
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    /**
+     * Counts a number of strings in the trie starts with the given range of a string
+     *
+     * @param prefix a string that contains the range
+     * @param offset the first char of the range
+     * @param length the number of chars in the range
+     */
+    public int howManyStartWithPrefix(@NotNull String prefix, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, prefix.length());
+        var node = find(prefix, offset, offset + length);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    /**
+     * Counts a number of strings in the trie starts with a prefix given by a range of code points
+     *
+     * @param codePoints an array that contains the range
+     * @param offset     the first index of the range
+     * @param length     the number of code points in the range
+     */
+    public int howManyStartWithPrefix(@NotNull int[] codePoints, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, codePoints.length);
+        var node = find(codePoints, offset, offset + length);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    private Node find(@NotNull String key, int from, int to) {
+        var currentNode = root;
+        int position = from;
+        while (position < to && currentNode != null) {
+            int codePoint = key.codePointAt(position);
+            currentNode = currentNode.getTransition(codePoint);
+            position += Character.charCount(codePoint);
+        }
+        return currentNode;
+    }
+
+    private Node find(@NotNull int[] codePoints, int from, int to) {
+        var currentNode = root;
+        for (int position = from; position < to && currentNode != null; position++) {
+            currentNode = currentNode.getTransition(codePoints[position]);
+        }
+        return currentNode;
+    }
+
+    private boolean insert(@NotNull String key, int from, int to) {
+        var currentNode = root;
+        int position = from;
+        while (position < to) {
+            int codePoint = key.codePointAt(position);
+            var child = currentNode.getTransition(codePoint);
+            if (child == null) {
+                break;
+            }
+            currentNode.terminalSubtreeSum++;
+            currentNode = child;
+            position += Character.charCount(codePoint);
+        }
+        if (position >= to && currentNode.terminal) {
+            restoreCounters(key, from, to);
+            return false;
+        }
+        while (position < to) {
+            int codePoint = key.codePointAt(position);
+            currentNode.terminalSubtreeSum++;
+            currentNode = currentNode.addTransition(codePoint);
+            position += Character.charCount(codePoint);
+        }
+        return markTerminal(currentNode);
+    }
+
+    private boolean insert(@NotNull int[] codePoints, int from, int to) {
+        var currentNode = root;
+        int position = from;
+        for (; position < to; position++) {
+            var child = currentNode.getTransition(codePoints[position]);
+            if (child == null) {
+                break;
+            }
+            currentNode.terminalSubtreeSum++;
+            currentNode = child;
+        }
+        if (position == to && currentNode.terminal) {
+            restoreCounters(codePoints, from, to);
+            return false;
+        }
+        for (; position < to; position++) {
+            currentNode.terminalSubtreeSum++;
+            currentNode = currentNode.addTransition(codePoints[position]);
+        }
+        return markTerminal(currentNode);
+    }
+
+    /** Counters are increased on the way down, so they are restored for an already contained string */
+    private void restoreCounters(@NotNull String key, int from, int to) {
+        var node = root;
+        int position = from;
+        while (position < to) {
+            int codePoint = key.codePointAt(position);
+            node.terminalSubtreeSum--;
+            node = node.getTransition(codePoint);
+            position += Character.charCount(codePoint);
+        }
+    }
+
+    private void restoreCounters(@NotNull int[] codePoints, int from, int to) {
+        var node = root;
+        for (int position = from; position < to; position++) {
+            node.terminalSubtreeSum--;
+            node = node.getTransition(codePoints[position]);
+        }
+    }
+
+    private boolean markTerminal(@NotNull Node node) {
+        node.terminal = true;
+        node.terminalSubtreeSum++;
+        size++;
+        return true;
+    }
+
+    private boolean delete(@NotNull String key, int from, int to) {
+        var node = find(key, from, to);
+        if (node == null || !node.terminal) {
+            return false;
+        }
+        size--;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum--;
+        int position = from;
+        while (position < to) {
+            int codePoint = key.codePointAt(position);
+            var parent = currentNode;
+            currentNode = currentNode.getTransition(codePoint);
+            currentNode.terminalSubtreeSum--;
+            if (currentNode.terminalSubtreeSum == 0) {
+                parent.removeTransition(codePoint);
+                return true;
+            }
+            position += Character.charCount(codePoint);
+        }
+        currentNode.terminal = false;
+        return true;
+    }
+
+    private boolean delete(@NotNull int[] codePoints, int from, int to) {
+        var node = find(codePoints, from, to);
+        if (node == null || !node.terminal) {
+            return false;
+        }
+        size--;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum--;
+        for (int position = from; position < to; position++) {
+            var parent = currentNode;
+            currentNode = currentNode.getTransition(codePoints[position]);
+            currentNode.terminalSubtreeSum--;
+            if (currentNode.terminalSubtreeSum == 0) {
+                parent.removeTransition(codePoints[position]);
+                return true;
+            }
+        }
+        currentNode.terminal = false;
+        return true;
+    }
+
+    private static class Node {
+        private boolean terminal = false;
+        private int terminalSubtreeSum = 0;
+        private int transitionsCount = 0;
+        private int[] edges;
+        private Node[] children;
+
+        private Node getTransition(int codePoint) {
+            if (transitionsCount == 0) {
+                return null;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, codePoint);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        /** Adds a transition by a code point that is absent and returns the new child */
+        private @NotNull Node addTransition(int codePoint) {
+            var child = new Node();
+            if (edges == null) {
+                edges = new int[2];
+                children = new Node[2];
+            }
+            int slot = -Arrays.binarySearch(edges, 0, transitionsCount, codePoint) - 1;
+            if (transitionsCount == edges.length) {
+                edges = Arrays.copyOf(edges, transitionsCount * 2);
+                children = Arrays.copyOf(children, transitionsCount * 2);
+            }
+            System.arraycopy(edges, slot, edges, slot + 1, transitionsCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, transitionsCount - slot);
+            edges[slot] = codePoint;
+            children[slot] = child;
+            transitionsCount++;
+            return child;
+        }
+
+        private void removeTransition(int codePoint) {
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, codePoint);
+            if (slot < 0) {
+                return;
+            }
+            transitionsCount--;
+            if (transitionsCount == 0) {
+                edges = null;
+                children = null;
+                return;
+            }
+            System.arraycopy(edges, slot + 1, edges, slot, transitionsCount - slot);
+            System.arraycopy(children, slot + 1, children, slot, transitionsCount - slot);
+            children[transitionsCount] = null;
+        }
+    }
+}
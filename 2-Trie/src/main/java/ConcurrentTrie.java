@@ -0,0 +1,232 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe set of strings using tree-like finite automaton. Reads never take a lock and finish
+ * in a number of steps bounded by the length of the string: transitions of a node are an immutable
+ * sorted array which is replaced by compare-and-set. Modifications of the same string are serialized by
+ * one of a fixed number of lock stripes, while modifications of different strings only meet at counters
+ * of common nodes, which are changed by compare-and-set too.
+ * A node whose counter drops to zero is marked dead before it is unlinked, and a writer that meets
+ * a dead node unlinks it and creates a new one, so a counter is never increased in a detached subtree.
+ */
+public class ConcurrentTrie implements UniterableSet<String> {
+    private static final int STRIPES_NUMBER = 16;
+    private static final int DEAD = -1;
+    private static final AtomicIntegerFieldUpdater<Node> TERMINAL_SUBTREE_SUM =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "terminalSubtreeSum");
+    private static final AtomicReferenceFieldUpdater<Node, Transitions> TRANSITIONS =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Transitions.class, "transitions");
+    private final @NotNull ReentrantLock[] locks = new ReentrantLock[STRIPES_NUMBER];
+    private final @NotNull AtomicInteger size = new AtomicInteger();
+    private final @NotNull Node root = new Node(0);
+
+    /** Creates an empty trie */
+    public ConcurrentTrie() {
+        Arrays.setAll(locks, i -> new ReentrantLock());
+    }
+
+    private @NotNull ReentrantLock lockFor(@NotNull String element) {
+        int hash = element.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES_NUMBER - 1)];
+    }
+
+    private @Nullable Node find(@NotNull String prefix) {
+        var currentNode = root;
+        for (int i = 0; i < prefix.length() && currentNode != null; i++) {
+            currentNode = currentNode.transitions.get(prefix.charAt(i));
+        }
+        return currentNode;
+    }
+
+    /**
+     * Adds a string into the trie
+     *
+     * @param element a string to add into the trie
+     * @return True if the trie did not contain the given string, false otherwise
+     */
+    @Override
+    public boolean add(@NotNull String element) {
+        var lock = lockFor(element);
+        lock.lock();
+        try {
+            if (contains(element)) {
+                return false;
+            }
+            TERMINAL_SUBTREE_SUM.incrementAndGet(root);
+            var currentNode = root;
+            for (int i = 0; i < element.length(); i++) {
+                currentNode = currentNode.enter(element.charAt(i));
+            }
+            currentNode.terminal = true;
+            size.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a string contains in the trie
+     *
+     * @param element a string to check
+     * @return True if the given string contains in the trie
+     */
+    @Override
+    public boolean contains(@NotNull String element) {
+        var node = find(element);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Removes a string from the trie
+     *
+     * @param element a string to remove
+     * @return true if the string was in the trie, false otherwise
+     */
+    @Override
+    public boolean remove(@NotNull String element) {
+        var lock = lockFor(element);
+        lock.lock();
+        try {
+            var last = find(element);
+            if (last == null || !last.terminal) {
+                return false;
+            }
+            last.terminal = false;
+            TERMINAL_SUBTREE_SUM.decrementAndGet(root);
+            var currentNode = root;
+            for (int i = 0; i < element.length(); i++) {
+                char c = element.charAt(i);
+                var child = currentNode.transitions.get(c);
+                if (TERMINAL_SUBTREE_SUM.decrementAndGet(child) == 0
+                        && TERMINAL_SUBTREE_SUM.compareAndSet(child, 0, DEAD)) {
+                    currentNode.unlink(c, child);
+                    break;
+                }
+                currentNode = child;
+            }
+            size.decrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns a number of strings in the trie */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Counts a number of strings in the trie starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        var node = find(prefix);
+        return node == null ? 0 : Math.max(node.terminalSubtreeSum, 0);
+    }
+
+    /** Sorted edge characters with a parallel array of children, a new instance is created on every change */
+    private static class Transitions {
+        private static final Transitions EMPTY = new Transitions(new char[0], new Node[0]);
+        private final @NotNull char[] edges;
+        private final @NotNull Node[] children;
+
+        private Transitions(@NotNull char[] edges, @NotNull Node[] children) {
+            this.edges = edges;
+            this.children = children;
+        }
+
+        private @Nullable Node get(char c) {
+            int slot = Arrays.binarySearch(edges, c);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        private @NotNull Transitions with(char c, @NotNull Node child) {
+            int slot = -Arrays.binarySearch(edges, c) - 1;
+            var newEdges = new char[edges.length + 1];
+            var newChildren = new Node[edges.length + 1];
+            System.arraycopy(edges, 0, newEdges, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(edges, slot, newEdges, slot + 1, edges.length - slot);
+            System.arraycopy(children, slot, newChildren, slot + 1, edges.length - slot);
+            newEdges[slot] = c;
+            newChildren[slot] = child;
+            return new Transitions(newEdges, newChildren);
+        }
+
+        private @NotNull Transitions without(char c) {
+            if (edges.length == 1) {
+                return EMPTY;
+            }
+            int slot = Arrays.binarySearch(edges, c);
+            var newEdges = new char[edges.length - 1];
+            var newChildren = new Node[edges.length - 1];
+            System.arraycopy(edges, 0, newEdges, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(edges, slot + 1, newEdges, slot, newEdges.length - slot);
+            System.arraycopy(children, slot + 1, newChildren, slot, newEdges.length - slot);
+            return new Transitions(newEdges, newChildren);
+        }
+    }
+
+    private static class Node {
+        private volatile boolean terminal = false;
+        private volatile int terminalSubtreeSum;
+        private volatile @NotNull Transitions transitions = Transitions.EMPTY;
+
+        private Node(int terminalSubtreeSum) {
+            this.terminalSubtreeSum = terminalSubtreeSum;
+        }
+
+        /** Increases the counter unless the node is dead */
+        private boolean tryIncrement() {
+            while (true) {
+                int sum = terminalSubtreeSum;
+                if (sum == DEAD) {
+                    return false;
+                }
+                if (TERMINAL_SUBTREE_SUM.compareAndSet(this, sum, sum + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /** Returns a live child by the given character with the increased counter, creating it if necessary */
+        private @NotNull Node enter(char c) {
+            while (true) {
+                var current = transitions;
+                var child = current.get(c);
+                if (child == null) {
+                    var created = new Node(1);
+                    if (TRANSITIONS.compareAndSet(this, current, current.with(c, created))) {
+                        return created;
+                    }
+                } else if (child.tryIncrement()) {
+                    return child;
+                } else {
+                    unlink(c, child);
+                }
+            }
+        }
+
+        /** Removes the transition by the given character if it still leads to the given child */
+        private void unlink(char c, @NotNull Node child) {
+            while (true) {
+                var current = transitions;
+                if (current.get(c) != child || TRANSITIONS.compareAndSet(this, current, current.without(c))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An immutable set of strings compiled from a {@link Trie} into a double-array trie.
+ * A transition from state s by character c leads to state t = base[s] + c + 1 if check[t] = s.
+ * Every state also keeps the number of strings in its subtree and whether it is terminal.
+ * The arrays may live in a memory-mapped file, so a saved set is queried without reading it.
+ */
+public class FrozenTrie {
+    private static final int MAGIC = 0x46545231;
+    private static final int HEADER_SIZE = 12;
+    private static final int FREE = -1;
+    private static final int UNLISTED = -2;
+    private final int size;
+    private final int length;
+    private final @NotNull IntBuffer base;
+    private final @NotNull IntBuffer check;
+    private final @NotNull IntBuffer info;
+
+    private FrozenTrie(int size, int length, @NotNull IntBuffer base, @NotNull IntBuffer check,
+                       @NotNull IntBuffer info) {
+        this.size = size;
+        this.length = length;
+        this.base = base;
+        this.check = check;
+        this.info = info;
+    }
+
+    /**
+     * Maps a set written by {@link #serialize(OutputStream)} into memory. Nothing is read until it is queried.
+     *
+     * @param path a file with the set, it must be smaller than 2 GB
+     * @throws IOException if the file can not be mapped or does not contain a set
+     */
+    public static @NotNull FrozenTrie map(@NotNull Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a frozen trie file: " + path);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int size = buffer.getInt(4);
+            int length = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || length <= 0 || channel.size() != HEADER_SIZE + 12L * length) {
+                throw new IOException("Not a frozen trie file: " + path);
+            }
+            return new FrozenTrie(size, length, view(buffer, 0, length), view(buffer, 1, length),
+                    view(buffer, 2, length));
+        }
+    }
+
+    private static @NotNull IntBuffer view(@NotNull ByteBuffer buffer, int array, int length) {
+        var copy = buffer.duplicate();
+        copy.position(HEADER_SIZE + array * 4 * length);
+        copy.limit(HEADER_SIZE + (array + 1) * 4 * length);
+        return copy.slice().asIntBuffer();
+    }
+
+    /**
+     * Writes the set into the OutputStream. The stream is flushed but not closed.
+     *
+     * @throws IOException if the stream can not be written
+     */
+    public void serialize(@NotNull OutputStream out) throws IOException {
+        var dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(size);
+        dataOut.writeInt(length);
+        for (var array : new IntBuffer[]{base, check, info}) {
+            for (int i = 0; i < length; i++) {
+                dataOut.writeInt(array.get(i));
+            }
+        }
+        dataOut.flush();
+    }
+
+    private int walk(@NotNull String string) {
+        int state = 0;
+        for (int i = 0; i < string.length(); i++) {
+            int next = base.get(state) + string.charAt(i) + 1;
+            if (next >= length || check.get(next) != state) {
+                return -1;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * Checks whether a string contains in the set
+     *
+     * @param element a string to check
+     * @return True if the given string contains in the set
+     */
+    public boolean contains(@NotNull String element) {
+        int state = walk(element);
+        return state >= 0 && (info.get(state) & 1) != 0;
+    }
+
+    /**
+     * Counts a number of strings in the set starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        int state = walk(prefix);
+        return state < 0 ? 0 : info.get(state) >>> 1;
+    }
+
+    /** Returns a number of strings in the set */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Builds the arrays state by state. Free positions are kept in a doubly linked list,
+     * so a place for children is searched among free positions only. A position that has failed
+     * to be the place of the first child too many times is dropped from the list, otherwise
+     * the search for wide nodes slows down on fragmented positions. It still may be taken by other children.
+     */
+    static class Builder {
+        private static final int MAXIMAL_FAILURES = 16;
+        private int[] base = new int[0];
+        private int[] check = new int[0];
+        private int[] info = new int[0];
+        private int[] nextFree = new int[0];
+        private int[] previousFree = new int[0];
+        private byte[] failures = new byte[0];
+        private int firstFree = FREE;
+        private int lastFree = FREE;
+        private int length = 1;
+
+        /** Creates a builder with the root state 0 */
+        Builder() {
+            grow(1024);
+            removeFree(0);
+            check[0] = 0;
+        }
+
+        /** Appends positions up to the given capacity to the end of the free list */
+        private void grow(int capacity) {
+            int oldCapacity = base.length;
+            base = Arrays.copyOf(base, capacity);
+            check = Arrays.copyOf(check, capacity);
+            info = Arrays.copyOf(info, capacity);
+            nextFree = Arrays.copyOf(nextFree, capacity);
+            previousFree = Arrays.copyOf(previousFree, capacity);
+            failures = Arrays.copyOf(failures, capacity);
+            for (int i = oldCapacity; i < capacity; i++) {
+                check[i] = FREE;
+                previousFree[i] = i == oldCapacity ? lastFree : i - 1;
+                nextFree[i] = i + 1 == capacity ? FREE : i + 1;
+            }
+            if (lastFree == FREE) {
+                firstFree = oldCapacity;
+            } else {
+                nextFree[lastFree] = oldCapacity;
+            }
+            lastFree = capacity - 1;
+        }
+
+        private void removeFree(int position) {
+            if (nextFree[position] == UNLISTED) {
+                return;
+            }
+            int previous = previousFree[position];
+            int next = nextFree[position];
+            if (previous == FREE) {
+                firstFree = next;
+            } else {
+                nextFree[previous] = next;
+            }
+            if (next == FREE) {
+                lastFree = previous;
+            } else {
+                previousFree[next] = previous;
+            }
+            nextFree[position] = UNLISTED;
+        }
+
+        private boolean fits(int candidate, @NotNull char[] edges, int count) {
+            for (int i = 0; i < count; i++) {
+                int position = candidate + edges[i] + 1;
+                while (position >= base.length) {
+                    grow(base.length * 2);
+                }
+                if (check[position] != FREE) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Places children of a state and returns their base
+         *
+         * @param state a state that has been placed before
+         * @param edges sorted characters of the transitions
+         * @param count the number of transitions
+         */
+        int placeChildren(int state, @NotNull char[] edges, int count) {
+            if (count == 0) {
+                return 0;
+            }
+            int position = firstFree;
+            while (true) {
+                if (position == FREE) {
+                    grow(base.length * 2);
+                    position = firstFree;
+                    continue;
+                }
+                int candidate = position - edges[0] - 1;
+                if (candidate >= 0 && fits(candidate, edges, count)) {
+                    base[state] = candidate;
+                    for (int i = 0; i < count; i++) {
+                        int child = candidate + edges[i] + 1;
+                        removeFree(child);
+                        check[child] = state;
+                        length = Math.max(length, child + 1);
+                    }
+                    return candidate;
+                }
+                if (nextFree[position] == FREE) {
+                    grow(base.length * 2);
+                }
+                int next = nextFree[position];
+                if (++failures[position] >= MAXIMAL_FAILURES) {
+                    removeFree(position);
+                }
+                position = next;
+            }
+        }
+
+        /**
+         * Sets the data of a placed state
+         *
+         * @param state              the state
+         * @param terminalSubtreeSum the number of strings in the subtree
+         * @param terminal           whether the path to the state is a string of the set
+         */
+        void setInfo(int state, int terminalSubtreeSum, boolean terminal) {
+            info[state] = terminalSubtreeSum << 1 | (terminal ? 1 : 0);
+        }
+
+        @NotNull FrozenTrie build(int size) {
+            return new FrozenTrie(size, length, IntBuffer.wrap(Arrays.copyOf(base, length)),
+                    IntBuffer.wrap(Arrays.copyOf(check, length)), IntBuffer.wrap(Arrays.copyOf(info, length)));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A set of keys using tree-like finite automaton over units given by {@link KeyUnits}.
+ * Every unit is read through the interface, so {@link ByteTrie} and {@link CodePointTrie} should be preferred
+ * for byte arrays and strings: they walk keys directly and store edges in arrays of their own unit type.
+ * Transitions of a node are sorted units with a parallel array of children.
+ * Every method has a variant that takes a range of positions of a key, so a part of a larger array
+ * is added or checked without copying it.
+ *
+ * @param <K> the type of keys
+ */
+public class GenericTrie<K> implements UniterableSet<K> {
+    private final @NotNull KeyUnits<K> units;
+    private int size = 0;
+    private @NotNull Node root = new Node();
+
+    /**
+     * Creates an empty trie
+     *
+     * @param units the way keys are split into units
+     */
+    public GenericTrie(@NotNull KeyUnits<K> units) {
+        this.units = units;
+    }
+
+    /**
+     * Adds a key into the trie
+     *
+     * @param key a key to add into the trie
+     * @return True if the trie did not contain the given key, false otherwise
+     */
+    @Override
+    public boolean add(@NotNull K key) {
+        return add(key, units, 0, units.length(key));
+    }
+
+    /**
+     * Adds a range of a key into the trie
+     *
+     * @param key    a key that contains the range
+     * @param offset the first position of the range
+     * @param length the number of positions in the range
+     * @return True if the trie did not contain the given range, false otherwise
+     */
+    public boolean add(@NotNull K key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, units.length(key));
+        return add(key, units, offset, offset + length);
+    }
+
+    /**
+     * Checks whether a key contains in the trie
+     *
+     * @param key a key to check
+     * @return True if the given key contains in the trie
+     */
+    @Override
+    public boolean contains(@NotNull K key) {
+        return contains(key, units, 0, units.length(key));
+    }
+
+    /**
+     * Checks whether a range of a key contains in the trie
+     *
+     * @param key    a key that contains the range
+     * @param offset the first position of the range
+     * @param length the number of positions in the range
+     * @return True if the given range contains in the trie
+     */
+    public boolean contains(@NotNull K key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, units.length(key));
+        return contains(key, units, offset, offset + length);
+    }
+
+    /**
+     * Removes a key from the trie
+     *
+     * @param key a key to remove
+     * @return true if the key was in the trie, false otherwise
+     */
+    @Override
+    public boolean remove(@NotNull K key) {
+        return remove(key, units, 0, units.length(key));
+    }
+
+    /**
+     * Removes a range of a key from the trie
+     *
+     * @param key    a key that contains the range
+     * @param offset the first position of the range
+     * @param length the number of positions in the range
+     * @return true if the range was in the trie, false otherwise
+     */
+    public boolean remove(@NotNull K key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, units.length(key));
+        return remove(key, units, offset, offset + length);
+    }
+
+    /** Returns a number of keys in the trie */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts a number of keys in the trie starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull K prefix) {
+        return howManyStartWithPrefix(prefix, units, 0, units.length(prefix));
+    }
+
+    /**
+     * Counts a number of keys in the trie starts with the given range of a key
+     *
+     * @param prefix a key that contains the range
+     * @param offset the first position of the range
+     * @param length the number of positions in the range
+     */
+    public int howManyStartWithPrefix(@NotNull K prefix, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, units.length(prefix));
+        return howManyStartWithPrefix(prefix, units, offset, offset + length);
+    }
+
+    /** Finds a node by units of a key from the given position up to the end position */
+    private <T> Node find(@NotNull T key, @NotNull KeyUnits<T> keyUnits, int from, int to) {
+        var currentNode = root;
+        for (int position = from; position < to && currentNode != null;
+             position = keyUnits.next(key, position)) {
+            currentNode = currentNode.getTransition(keyUnits.unitAt(key, position));
+        }
+        return currentNode;
+    }
+
+    /** Adds units of a key from the given position up to the end position, the units may be of another type */
+    private <T> boolean add(@NotNull T key, @NotNull KeyUnits<T> keyUnits, int from, int to) {
+        var currentNode = root;
+        int position = from;
+        for (; position < to; position = keyUnits.next(key, position)) {
+            var child = currentNode.getTransition(keyUnits.unitAt(key, position));
+            if (child == null) {
+                break;
+            }
+            currentNode.terminalSubtreeSum++;
+            currentNode = child;
+        }
+        if (position >= to && currentNode.terminal) {
+            // counters are increased on the way down, so they are restored for an already contained key
+            var node = root;
+            for (int i = from; i < to; i = keyUnits.next(key, i)) {
+                node.terminalSubtreeSum--;
+                node = node.getTransition(keyUnits.unitAt(key, i));
+            }
+            return false;
+        }
+        for (; position < to; position = keyUnits.next(key, position)) {
+            currentNode.terminalSubtreeSum++;
+            currentNode = currentNode.addTransition(keyUnits.unitAt(key, position));
+        }
+        currentNode.terminal = true;
+        currentNode.terminalSubtreeSum++;
+        size++;
+        return true;
+    }
+
+    /** Checks units of a key from the given position up to the end position, the units may be of another type */
+    private <T> boolean contains(@NotNull T key, @NotNull KeyUnits<T> keyUnits, int from, int to) {
+        var node = find(key, keyUnits, from, to);
+        return node != null && node.terminal;
+    }
+
+    /** Removes units of a key from the given position up to the end position, the units may be of another type */
+    private <T> boolean remove(@NotNull T key, @NotNull KeyUnits<T> keyUnits, int from, int to) {
+        if (!contains(key, keyUnits, from, to)) {
+            return false;
+        }
+        size--;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum--;
+        for (int position = from; position < to; position = keyUnits.next(key, position)) {
+            int unit = keyUnits.unitAt(key, position);
+            var parent = currentNode;
+            currentNode = currentNode.getTransition(unit);
+            currentNode.terminalSubtreeSum--;
+            if (currentNode.terminalSubtreeSum == 0) {
+                parent.removeTransition(unit);
+                return true;
+            }
+        }
+        currentNode.terminal = false;
+        return true;
+    }
+
+    /** Counts keys that start with units of a key from the given position up to the end position */
+    private <T> int howManyStartWithPrefix(@NotNull T prefix, @NotNull KeyUnits<T> keyUnits, int from, int to) {
+        var node = find(prefix, keyUnits, from, to);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    private static class Node {
+        private boolean terminal = false;
+        private int terminalSubtreeSum = 0;
+        private int transitionsCount = 0;
+        private int[] edges;
+        private Node[] children;
+
+        private Node getTransition(int unit) {
+            if (transitionsCount == 0) {
+                return null;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, unit);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        /** Adds a transition by a unit that is absent and returns the new child */
+        private @NotNull Node addTransition(int unit) {
+            var child = new Node();
+            if (edges == null) {
+                edges = new int[2];
+                children = new Node[2];
+            }
+            int slot = -Arrays.binarySearch(edges, 0, transitionsCount, unit) - 1;
+            if (transitionsCount == edges.length) {
+                edges = Arrays.copyOf(edges, transitionsCount * 2);
+                children = Arrays.copyOf(children, transitionsCount * 2);
+            }
+            System.arraycopy(edges, slot, edges, slot + 1, transitionsCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, transitionsCount - slot);
+            edges[slot] = unit;
+            children[slot] = child;
+            transitionsCount++;
+            return child;
+        }
+
+        private void removeTransition(int unit) {
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, unit);
+            if (slot < 0) {
+                return;
+            }
+            transitionsCount--;
+            if (transitionsCount == 0) {
+                edges = null;
+                children = null;
+                return;
+            }
+            System.arraycopy(edges, slot + 1, edges, slot, transitionsCount - slot);
+            System.arraycopy(children, slot + 1, children, slot, transitionsCount - slot);
+            children[transitionsCount] = null;
+        }
+    }
+}
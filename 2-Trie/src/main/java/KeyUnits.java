@@ -0,0 +1,65 @@
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits keys of a trie into units. A unit is a non-negative int, such as a byte or a code point, that starts
+ * at some position of the key. Positions are indices in the storage of the key, so a range of a key is
+ * addressed without copying it.
+ *
+ * @param <K> the type of keys
+ */
+public interface KeyUnits<K> {
+    /** Bytes of an array as numbers from 0 to 255 */
+    KeyUnits<byte[]> BYTES = new KeyUnits<>() {
+        @Override
+        public int length(@NotNull byte[] key) {
+            return key.length;
+        }
+
+        @Override
+        public int unitAt(@NotNull byte[] key, int position) {
+            return key[position] & 0xFF;
+        }
+    };
+
+    /** Elements of an array of code points */
+    KeyUnits<int[]> CODE_POINTS = new KeyUnits<>() {
+        @Override
+        public int length(@NotNull int[] key) {
+            return key.length;
+        }
+
+        @Override
+        public int unitAt(@NotNull int[] key, int position) {
+            return key[position];
+        }
+    };
+
+    /** Code points of a string, a surrogate pair is one unit and an unpaired surrogate is a unit on its own */
+    KeyUnits<String> STRING_CODE_POINTS = new KeyUnits<>() {
+        @Override
+        public int length(@NotNull String key) {
+            return key.length();
+        }
+
+        @Override
+        public int unitAt(@NotNull String key, int position) {
+            return key.codePointAt(position);
+        }
+
+        @Override
+        public int next(@NotNull String key, int position) {
+            return position + Character.charCount(key.codePointAt(position));
+        }
+    };
+
+    /** Returns the number of positions of the key */
+    int length(@NotNull K key);
+
+    /** Returns the unit that starts at the given position */
+    int unitAt(@NotNull K key, int position);
+
+    /** Returns the position after the unit that starts at the given position */
+    default int next(@NotNull K key, int position) {
+        return position + 1;
+    }
+}
@@ -0,0 +1,238 @@
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A set of strings using a radix tree: a chain of nodes with one child each is compressed into one edge
+ * labeled with a string, so long keys with common prefixes, such as paths and URLs, take few nodes.
+ * Every node except the root is terminal or has at least two children. A node is split when a new string
+ * diverges inside its edge, and it is merged with its only child when it stops being terminal.
+ */
+public class RadixTrie implements UniterableSet<String> {
+    private int size = 0;
+    private final @NotNull Node root = new Node("");
+
+    /**
+     * Adds a string into the trie
+     *
+     * @param element a string to add into the trie
+     * @return True if the trie did not contain the given string, false otherwise
+     */
+    @Override
+    public boolean add(@NotNull String element) {
+        if (contains(element)) {
+            return false;
+        }
+        size++;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum++;
+        int position = 0;
+        while (position < element.length()) {
+            var child = currentNode.getTransition(element.charAt(position));
+            if (child == null) {
+                var leaf = new Node(element.substring(position));
+                leaf.terminal = true;
+                leaf.terminalSubtreeSum = 1;
+                currentNode.addTransition(leaf);
+                return true;
+            }
+            int common = commonPrefixLength(child.label, element, position);
+            if (common < child.label.length()) {
+                var middle = new Node(child.label.substring(0, common));
+                middle.terminalSubtreeSum = child.terminalSubtreeSum;
+                child.label = child.label.substring(common);
+                currentNode.replaceTransition(middle);
+                middle.addTransition(child);
+                child = middle;
+            }
+            child.terminalSubtreeSum++;
+            currentNode = child;
+            position += common;
+        }
+        currentNode.terminal = true;
+        return true;
+    }
+
+    private static int commonPrefixLength(@NotNull String label, @NotNull String element, int position) {
+        int maximal = Math.min(label.length(), element.length() - position);
+        int common = 0;
+        while (common < maximal && label.charAt(common) == element.charAt(position + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * Returns the node at the end of the given string or null if there is no such path.
+     * If a partial edge is allowed, the string may end inside the label of the returned node
+     */
+    private @Nullable Node find(@NotNull String string, boolean allowPartialEdge) {
+        var currentNode = root;
+        int position = 0;
+        while (position < string.length()) {
+            var child = currentNode.getTransition(string.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            int remaining = string.length() - position;
+            int length = child.label.length();
+            if (remaining < length) {
+                return allowPartialEdge && string.regionMatches(position, child.label, 0, remaining) ? child : null;
+            }
+            if (!string.regionMatches(position, child.label, 0, length)) {
+                return null;
+            }
+            position += length;
+            currentNode = child;
+        }
+        return currentNode;
+    }
+
+    /**
+     * Checks whether a string contains in the trie
+     *
+     * @param element a string to check
+     * @return True if the given string contains in the trie
+     */
+    @Override
+    public boolean contains(@NotNull String element) {
+        var node = find(element, false);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Removes a string from the trie
+     *
+     * @param element a string to remove
+     * @return true if the string was in the trie, false otherwise
+     */
+    @Override
+    public boolean remove(@NotNull String element) {
+        if (!contains(element)) {
+            return false;
+        }
+        size--;
+        Node parent = null;
+        var currentNode = root;
+        currentNode.terminalSubtreeSum--;
+        int position = 0;
+        while (position < element.length()) {
+            parent = currentNode;
+            currentNode = currentNode.getTransition(element.charAt(position));
+            currentNode.terminalSubtreeSum--;
+            position += currentNode.label.length();
+        }
+        currentNode.terminal = false;
+        if (currentNode.terminalSubtreeSum == 0 && parent != null) {
+            parent.removeTransition(currentNode.label.charAt(0));
+            if (parent != root && !parent.terminal && parent.transitionsCount == 1) {
+                parent.mergeWithChild();
+            }
+        } else if (currentNode != root && currentNode.transitionsCount == 1) {
+            currentNode.mergeWithChild();
+        }
+        return true;
+    }
+
+    /** Returns a number of strings in the trie */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts a number of strings in the trie starts with the given prefix
+     *
+     * @param prefix a prefix
+     */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        var node = find(prefix, true);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    /** Returns the number of nodes including the root */
+    int nodesCount() {
+        int count = 0;
+        var nodes = new ArrayDeque<Node>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            var node = nodes.pop();
+            count++;
+            for (int i = 0; i < node.transitionsCount; i++) {
+                nodes.push(node.children[i]);
+            }
+        }
+        return count;
+    }
+
+    /** A node keeps the label of the edge into it and its children sorted by the first characters of their labels */
+    private static class Node {
+        private @NotNull String label;
+        private boolean terminal = false;
+        private int terminalSubtreeSum = 0;
+        private int transitionsCount = 0;
+        private @Nullable char[] edges;
+        private @Nullable Node[] children;
+
+        private Node(@NotNull String label) {
+            this.label = label;
+        }
+
+        private @Nullable Node getTransition(char c) {
+            if (transitionsCount == 0) {
+                return null;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, c);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        /** Adds a child whose label starts with a character that no other child starts with */
+        private void addTransition(@NotNull Node child) {
+            char c = child.label.charAt(0);
+            if (edges == null) {
+                edges = new char[2];
+                children = new Node[2];
+            }
+            int slot = -Arrays.binarySearch(edges, 0, transitionsCount, c) - 1;
+            if (transitionsCount == edges.length) {
+                edges = Arrays.copyOf(edges, transitionsCount * 2);
+                children = Arrays.copyOf(children, transitionsCount * 2);
+            }
+            System.arraycopy(edges, slot, edges, slot + 1, transitionsCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, transitionsCount - slot);
+            edges[slot] = c;
+            children[slot] = child;
+            transitionsCount++;
+        }
+
+        /** Replaces the child whose label starts with the same character as the label of the given node */
+        private void replaceTransition(@NotNull Node child) {
+            children[Arrays.binarySearch(edges, 0, transitionsCount, child.label.charAt(0))] = child;
+        }
+
+        private void removeTransition(char c) {
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, c);
+            transitionsCount--;
+            if (transitionsCount == 0) {
+                edges = null;
+                children = null;
+                return;
+            }
+            System.arraycopy(edges, slot + 1, edges, slot, transitionsCount - slot);
+            System.arraycopy(children, slot + 1, children, slot, transitionsCount - slot);
+            children[transitionsCount] = null;
+        }
+
+        /** Takes the place of its only child, the node must not be terminal */
+        private void mergeWithChild() {
+            var child = children[0];
+            label = label + child.label;
+            terminal = child.terminal;
+            transitionsCount = child.transitionsCount;
+            edges = child.edges;
+            children = child.children;
+        }
+    }
+}
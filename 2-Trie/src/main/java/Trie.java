@@ -1,13 +1,20 @@
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /** A data structure that implements a set of strings using tree-like finite automaton */
 public class Trie implements Serializable, UniterableSet<String> {
+    private static final int COMPACT_FORMAT_MAGIC = 0x54524934;
+    private static final int COMPACT_HEADER_SIZE = 12;
     private int size = 0;
+    private int modificationsCount = 0;
     private @NotNull Node root = new Node();
+    /** Nodes of the last walked path, reused by changes that update nodes above the changed one */
+    private transient @Nullable Node[] path;
 
     @Override
     public boolean equals(Object o) {
@@ -24,29 +31,195 @@ public class Trie implements Serializable, UniterableSet<String> {
     }
 
     /**
-     * Adds a string into the trie
+     * Adds a string into the trie. A new string gets the weight 0, the weight of a contained string is kept
      *
      * @param element a string to add into the trie
      * @return True if the trie did not contain the given string, false otherwise
      */
     public boolean add(@NotNull String element) {
-        if (contains(element)) {
-            return false;
+        return insert(element, 0, false);
+    }
+
+    /**
+     * Adds a string with a weight into the trie or changes the weight of a contained string.
+     * Weights order strings returned by {@link #top}
+     *
+     * @param element a string to add into the trie
+     * @param weight  a weight of the string
+     * @return True if the trie did not contain the given string, false otherwise
+     */
+    public boolean add(@NotNull String element, double weight) {
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("Weight must be a number");
         }
-        size++;
+        return insert(element, weight, true);
+    }
+
+    private boolean insert(@NotNull String element, double weight, boolean replaceWeight) {
+        int length = element.length();
+        var path = path(length);
         var currentNode = root;
-        for (char c : element.toCharArray()) {
-            if (currentNode.getTransition(c) == null) {
-                currentNode.addTransition(c);
+        path[0] = currentNode;
+        int i = 0;
+        for (; i < length; i++) {
+            var child = currentNode.getTransition(element.charAt(i));
+            if (child == null) {
+                break;
             }
             currentNode.terminalSubtreeSum++;
-            currentNode = currentNode.getTransition(c);
+            currentNode = child;
+            path[i + 1] = currentNode;
+        }
+        if (i == length && currentNode.terminal) {
+            // counters are increased on the way down, so they are restored for an already contained string
+            for (int j = 0; j < length; j++) {
+                path[j].terminalSubtreeSum--;
+            }
+            if (replaceWeight && Double.compare(currentNode.weight, weight) != 0) {
+                currentNode.weight = weight;
+                updateMaxWeights(path, length);
+            }
+            Arrays.fill(path, 0, length + 1, null);
+            return false;
+        }
+        for (; i < length; i++) {
+            currentNode.terminalSubtreeSum++;
+            currentNode = currentNode.addTransition(element.charAt(i));
+            path[i + 1] = currentNode;
         }
         currentNode.terminal = true;
+        currentNode.weight = weight;
         currentNode.terminalSubtreeSum++;
+        for (int j = 0; j <= length; j++) {
+            path[j].maxWeight = Math.max(path[j].maxWeight, weight);
+        }
+        Arrays.fill(path, 0, length + 1, null);
+        size++;
+        modificationsCount++;
         return true;
     }
 
+    /** Returns a buffer for a path to a string of the given length */
+    private @NotNull Node[] path(int length) {
+        if (path == null || path.length <= length) {
+            path = new Node[Math.max(16, length + 1)];
+        }
+        return path;
+    }
+
+    /** Recomputes maximal weights of the path from the given depth up while they change */
+    private static void updateMaxWeights(@NotNull Node[] path, int depth) {
+        for (; depth >= 0; depth--) {
+            double previous = path[depth].maxWeight;
+            path[depth].recomputeMaxWeight();
+            if (Double.compare(path[depth].maxWeight, previous) == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds strings into the trie. An empty trie is built bottom-up in one pass over the sorted strings:
+     * a new string shares the path of the previous one up to their common prefix, and when a node is left
+     * all of its children are known, so its arrays are allocated once and its counter is computed once.
+     * Strings that are not sorted are sorted in parallel first.
+     * Strings are added one by one into a trie that is not empty
+     *
+     * @param list strings to add
+     */
+    @Override
+    public void addAll(@NotNull List<String> list) {
+        if (size != 0) {
+            UniterableSet.super.addAll(list);
+            return;
+        }
+        var strings = list.toArray(new String[0]);
+        for (int i = 1; i < strings.length; i++) {
+            if (strings[i - 1].compareTo(strings[i]) > 0) {
+                Arrays.parallelSort(strings);
+                break;
+            }
+        }
+        buildFromSorted(strings);
+    }
+
+    private void buildFromSorted(@NotNull String[] strings) {
+        var path = new Node[16];
+        var pendingEdges = new char[16][];
+        var pendingChildren = new Node[16][];
+        var pendingCounts = new int[16];
+        path[0] = root;
+        int depth = 0;
+        String previous = null;
+        for (var string : strings) {
+            int common = 0;
+            if (previous != null) {
+                int maximal = Math.min(previous.length(), string.length());
+                while (common < maximal && previous.charAt(common) == string.charAt(common)) {
+                    common++;
+                }
+                if (common == string.length() && common == previous.length()) {
+                    continue;
+                }
+            }
+            for (; depth > common; depth--) {
+                finishBuilding(path, pendingEdges, pendingChildren, pendingCounts, depth);
+            }
+            if (path.length <= string.length()) {
+                int length = Math.max(path.length * 2, string.length() + 1);
+                path = Arrays.copyOf(path, length);
+                pendingEdges = Arrays.copyOf(pendingEdges, length);
+                pendingChildren = Arrays.copyOf(pendingChildren, length);
+                pendingCounts = Arrays.copyOf(pendingCounts, length);
+            }
+            for (; depth < string.length(); depth++) {
+                if (pendingEdges[depth] == null) {
+                    pendingEdges[depth] = new char[4];
+                    pendingChildren[depth] = new Node[4];
+                } else if (pendingCounts[depth] == pendingEdges[depth].length) {
+                    pendingEdges[depth] = Arrays.copyOf(pendingEdges[depth], pendingCounts[depth] * 2);
+                    pendingChildren[depth] = Arrays.copyOf(pendingChildren[depth], pendingCounts[depth] * 2);
+                }
+                var child = new Node();
+                pendingEdges[depth][pendingCounts[depth]] = string.charAt(depth);
+                pendingChildren[depth][pendingCounts[depth]++] = child;
+                path[depth + 1] = child;
+            }
+            path[depth].terminal = true;
+            path[depth].maxWeight = 0;
+            path[depth].terminalSubtreeSum++;
+            size++;
+            previous = string;
+        }
+        for (; depth >= 0; depth--) {
+            finishBuilding(path, pendingEdges, pendingChildren, pendingCounts, depth);
+        }
+        modificationsCount++;
+    }
+
+    /**
+     * Gives a node of the path its collected children, all of them are finished, and adds its counter
+     * and its maximal weight to the parent
+     */
+    private static void finishBuilding(@NotNull Node[] path, @NotNull char[][] pendingEdges,
+                                       @NotNull Node[][] pendingChildren, @NotNull int[] pendingCounts, int depth) {
+        var node = path[depth];
+        int count = pendingCounts[depth];
+        if (count > 0) {
+            node.transitionsCount = count;
+            node.edges = Arrays.copyOf(pendingEdges[depth], count);
+            node.children = Arrays.copyOf(pendingChildren[depth], count);
+            node.makeDenseIfCompact();
+            Arrays.fill(pendingChildren[depth], 0, count, null);
+            pendingCounts[depth] = 0;
+        }
+        if (depth > 0) {
+            path[depth - 1].terminalSubtreeSum += node.terminalSubtreeSum;
+            path[depth - 1].maxWeight = Math.max(path[depth - 1].maxWeight, node.maxWeight);
+        }
+        path[depth] = null;
+    }
+
     /**
      * Checks whether a string contains in the trie
      *
@@ -54,14 +227,8 @@ public class Trie implements Serializable, UniterableSet<String> {
      * @return True if the given string contains in the trie
      */
     public boolean contains(@NotNull String element) {
-        var currentnode = root;
-        for (char c : element.toCharArray()) {
-            if (currentnode.getTransition(c) == null) {
-                return false;
-            }
-            currentnode = currentnode.getTransition(c);
-        }
-        return currentnode.terminal;
+        var node = find(element);
+        return node != null && node.terminal;
     }
 
     /**
@@ -75,18 +242,29 @@ public class Trie implements Serializable, UniterableSet<String> {
             return false;
         }
         size--;
+        modificationsCount++;
+        int length = element.length();
+        var path = path(length);
         var currentNode = root;
         currentNode.terminalSubtreeSum--;
-        for (char c : element.toCharArray()) {
+        path[0] = currentNode;
+        for (int i = 0; i < length; i++) {
+            char c = element.charAt(i);
             var parent = currentNode;
             currentNode = currentNode.getTransition(c);
             currentNode.terminalSubtreeSum--;
             if (currentNode.terminalSubtreeSum == 0) {
                 parent.removeTransition(c);
+                updateMaxWeights(path, i);
+                Arrays.fill(path, 0, i + 1, null);
                 return true;
             }
+            path[i + 1] = currentNode;
         }
         currentNode.terminal = false;
+        currentNode.weight = 0;
+        updateMaxWeights(path, length);
+        Arrays.fill(path, 0, length + 1, null);
         return true;
     }
 
@@ -95,20 +273,279 @@ public class Trie implements Serializable, UniterableSet<String> {
         return size;
     }
 
+    /** Returns the number of nodes including the root */
+    int nodesCount() {
+        int count = 0;
+        var nodes = new ArrayDeque<Node>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            var node = nodes.pop();
+            count++;
+            for (int slot = 0; slot < node.slotsCount(); slot++) {
+                var child = node.childAt(slot);
+                if (child != null) {
+                    nodes.push(child);
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * Counts a number of strings in the trie starts with the given prefix
      *
      * @param prefix a prefix
      */
     public int howManyStartWithPrefix(@NotNull String prefix) {
-        var currentnode = root;
-        for (char c : prefix.toCharArray()) {
-            if (currentnode.getTransition(c) == null) {
-                return 0;
+        var node = find(prefix);
+        return node == null ? 0 : node.terminalSubtreeSum;
+    }
+
+    /**
+     * Compiles the trie into an immutable double-array trie. Nodes are placed in breadth-first order,
+     * so the children of every node are placed together. Later changes of the trie do not affect the result.
+     */
+    public @NotNull FrozenTrie freeze() {
+        var builder = new FrozenTrie.Builder();
+        var nodes = new ArrayDeque<Node>();
+        var states = new ArrayDeque<Integer>();
+        var edges = new char[0];
+        builder.setInfo(0, root.terminalSubtreeSum, root.terminal);
+        nodes.add(root);
+        states.add(0);
+        while (!nodes.isEmpty()) {
+            var node = nodes.poll();
+            int state = states.poll();
+            if (edges.length < node.transitionsCount) {
+                edges = new char[node.transitionsCount];
+            }
+            int count = 0;
+            for (int slot = 0; slot < node.slotsCount(); slot++) {
+                if (node.childAt(slot) != null) {
+                    edges[count++] = node.edgeAt(slot);
+                }
+            }
+            int base = builder.placeChildren(state, edges, count);
+            for (int i = 0; i < count; i++) {
+                var child = node.getTransition(edges[i]);
+                int childState = base + edges[i] + 1;
+                builder.setInfo(childState, child.terminalSubtreeSum, child.terminal);
+                nodes.add(child);
+                states.add(childState);
+            }
+        }
+        return builder.build(size);
+    }
+
+    /**
+     * Compiles the trie into an Aho-Corasick automaton that finds occurrences of its strings in a text.
+     * Later changes of the trie do not affect the result
+     */
+    public @NotNull AhoCorasick compileMatcher() {
+        var nodes = new ArrayList<Node>();
+        var parents = new ArrayList<Integer>();
+        var labels = new StringBuilder();
+        nodes.add(root);
+        parents.add(-1);
+        labels.append('\0');
+        var firstChild = new int[16];
+        var childrenCount = new int[16];
+        for (int state = 0; state < nodes.size(); state++) {
+            var node = nodes.get(state);
+            if (state == firstChild.length) {
+                firstChild = Arrays.copyOf(firstChild, state * 2);
+                childrenCount = Arrays.copyOf(childrenCount, state * 2);
+            }
+            firstChild[state] = nodes.size();
+            for (int slot = 0; slot < node.slotsCount(); slot++) {
+                var child = node.childAt(slot);
+                if (child != null) {
+                    nodes.add(child);
+                    parents.add(state);
+                    labels.append(node.edgeAt(slot));
+                }
+            }
+            childrenCount[state] = nodes.size() - firstChild[state];
+        }
+        int statesCount = nodes.size();
+        var patterns = new String[statesCount];
+        var word = new StringBuilder();
+        for (int state = 1; state < statesCount; state++) {
+            if (nodes.get(state).terminal) {
+                word.setLength(0);
+                for (int current = state; current > 0; current = parents.get(current)) {
+                    word.append(labels.charAt(current));
+                }
+                patterns[state] = word.reverse().toString();
+            }
+        }
+        var labelsArray = new char[statesCount];
+        labels.getChars(0, statesCount, labelsArray, 0);
+        return new AhoCorasick(labelsArray, Arrays.copyOf(firstChild, statesCount),
+                Arrays.copyOf(childrenCount, statesCount), patterns);
+    }
+
+    private @Nullable Node find(@NotNull String prefix) {
+        var currentNode = root;
+        for (int i = 0; i < prefix.length() && currentNode != null; i++) {
+            currentNode = currentNode.getTransition(prefix.charAt(i));
+        }
+        return currentNode;
+    }
+
+    /**
+     * Returns a lazy iterator over strings of the trie that start with the given prefix in lexicographic order.
+     * The iterator throws ConcurrentModificationException if the trie is changed during the iteration
+     *
+     * @param prefix a prefix
+     */
+    public @NotNull Iterator<String> iterator(@NotNull String prefix) {
+        return new PrefixIterator(prefix, 0);
+    }
+
+    /**
+     * Returns a lazy sequential stream of strings of the trie that start with the given prefix in lexicographic order
+     *
+     * @param prefix a prefix
+     */
+    public @NotNull Stream<String> stream(@NotNull String prefix) {
+        var characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliterator(iterator(prefix), howManyStartWithPrefix(prefix),
+                characteristics), false);
+    }
+
+    /**
+     * Returns a page of strings of the trie that start with the given prefix in lexicographic order.
+     * Subtrees before the page are skipped by their sizes, so the page is found in O(depth) steps
+     *
+     * @param prefix a prefix
+     * @param offset the number of strings to skip
+     * @param limit  the maximal number of strings to return
+     */
+    public @NotNull List<String> startingWith(@NotNull String prefix, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must be non-negative");
+        }
+        var page = new ArrayList<String>(Math.min(limit, Math.max(0, howManyStartWithPrefix(prefix) - offset)));
+        var iterator = new PrefixIterator(prefix, offset);
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Returns at most k strings of the trie that start with the given prefix and have the largest weights
+     * given by {@link #add(String, double)}. Strings with equal weights are ordered lexicographically.
+     * Every node keeps the maximal weight of its subtree, so subtrees are expanded best-first
+     * and the search stops after k strings
+     *
+     * @param prefix a prefix
+     * @param k      the maximal number of strings to return
+     * @return The strings in descending order of weights
+     */
+    public @NotNull List<String> top(@NotNull String prefix, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative");
+        }
+        var node = find(prefix);
+        if (node == null || k == 0) {
+            return new ArrayList<>();
+        }
+        var result = new ArrayList<String>(Math.min(k, node.terminalSubtreeSum));
+        var candidates = new PriorityQueue<Candidate>();
+        candidates.add(new Candidate(prefix, node, node.maxWeight));
+        while (result.size() < k && !candidates.isEmpty()) {
+            var candidate = candidates.poll();
+            var current = candidate.node;
+            if (current == null) {
+                result.add(candidate.word);
+                continue;
+            }
+            if (current.terminal) {
+                candidates.add(new Candidate(candidate.word, null, current.weight));
+            }
+            for (int slot = 0; slot < current.slotsCount(); slot++) {
+                var child = current.childAt(slot);
+                if (child != null) {
+                    candidates.add(new Candidate(candidate.word + current.edgeAt(slot), child, child.maxWeight));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns strings of the trie within the given Levenshtein distance from the query in lexicographic order.
+     * The trie is walked with a row of the edit distance table per depth, and a subtree is skipped
+     * as soon as every value of the row exceeds the distance
+     *
+     * @param query       a string to search near
+     * @param maxDistance the maximal number of inserted, removed and replaced characters
+     * @param limit       the maximal number of strings to return
+     */
+    public @NotNull List<String> withinDistance(@NotNull String query, int maxDistance, int limit) {
+        if (maxDistance < 0 || limit < 0) {
+            throw new IllegalArgumentException("Distance and limit must be non-negative");
+        }
+        var result = new ArrayList<String>();
+        int length = query.length();
+        var rows = new int[16][];
+        var nodes = new Node[16];
+        var slots = new int[16];
+        rows[0] = new int[length + 1];
+        Arrays.setAll(rows[0], j -> j);
+        if (root.terminal && length <= maxDistance && limit > 0) {
+            result.add("");
+        }
+        nodes[0] = root;
+        var word = new StringBuilder();
+        int depth = 1;
+        while (depth > 0 && result.size() < limit) {
+            var node = nodes[depth - 1];
+            int slot = slots[depth - 1];
+            while (slot < node.slotsCount() && node.childAt(slot) == null) {
+                slot++;
+            }
+            if (slot == node.slotsCount()) {
+                nodes[--depth] = null;
+                if (depth > 0) {
+                    word.setLength(depth - 1);
+                }
+                continue;
             }
-            currentnode = currentnode.getTransition(c);
+            slots[depth - 1] = slot + 1;
+            var child = node.childAt(slot);
+            char c = node.edgeAt(slot);
+            if (depth == rows.length) {
+                rows = Arrays.copyOf(rows, depth * 2);
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                slots = Arrays.copyOf(slots, depth * 2);
+            }
+            if (rows[depth] == null) {
+                rows[depth] = new int[length + 1];
+            }
+            var previous = rows[depth - 1];
+            var row = rows[depth];
+            row[0] = previous[0] + 1;
+            int minimum = row[0];
+            for (int j = 1; j <= length; j++) {
+                int replace = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                row[j] = Math.min(replace, Math.min(previous[j], row[j - 1]) + 1);
+                minimum = Math.min(minimum, row[j]);
+            }
+            if (minimum > maxDistance) {
+                continue;
+            }
+            word.append(c);
+            if (child.terminal && row[length] <= maxDistance) {
+                result.add(word.toString());
+            }
+            nodes[depth] = child;
+            slots[depth] = 0;
+            depth++;
         }
-        return currentnode.terminalSubtreeSum;
+        return result;
     }
 
     /**
@@ -131,49 +568,474 @@ public class Trie implements Serializable, UniterableSet<String> {
     public void deserialize(@NotNull InputStream in) throws IOException {
         try (var dataIn = new DataInputStream(in)) {
             size = dataIn.readInt();
+            modificationsCount++;
             root = new Node();
             root.deserialize(dataIn);
         }
     }
 
+    /**
+     * Writes the trie into the OutputStream in a compact format without recursion. Nodes are written
+     * in depth-first order, each one as a varint with the number of transitions, a flag of a non-zero weight
+     * and the terminal flag, followed by the weight if it is flagged and varint differences of the sorted
+     * edge characters. The nodes are preceded by the length
+     * of the encoding, which is computed by a pass that writes nowhere, so a reader takes exactly these bytes.
+     * The stream is flushed but not closed
+     *
+     * @throws IOException if the stream can not be written
+     */
+    public void writeTo(@NotNull OutputStream out) throws IOException {
+        var counter = new VarintWriter(OutputStream.nullOutputStream());
+        writeNodes(counter);
+        var writer = new VarintWriter(out);
+        writer.writeInt(COMPACT_FORMAT_MAGIC);
+        writer.writeLong(counter.size());
+        writeNodes(writer);
+        writer.flush();
+    }
+
+    private void writeNodes(@NotNull VarintWriter writer) throws IOException {
+        writer.writeVarint(size);
+        var nodes = new ArrayDeque<Node>();
+        nodes.push(root);
+        var children = new Node[0];
+        while (!nodes.isEmpty()) {
+            var node = nodes.pop();
+            boolean weighted = node.terminal && node.weight != 0;
+            writer.writeVarint(node.transitionsCount << 2 | (weighted ? 2 : 0) | (node.terminal ? 1 : 0));
+            if (weighted) {
+                writer.writeLong(Double.doubleToLongBits(node.weight));
+            }
+            if (children.length < node.transitionsCount) {
+                children = new Node[node.transitionsCount];
+            }
+            int count = 0;
+            char previous = 0;
+            for (int slot = 0; slot < node.slotsCount(); slot++) {
+                var child = node.childAt(slot);
+                if (child != null) {
+                    writer.writeVarint(node.edgeAt(slot) - previous);
+                    previous = node.edgeAt(slot);
+                    children[count++] = child;
+                }
+            }
+            while (count > 0) {
+                nodes.push(children[--count]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of the trie with one read from the InputStream in the format of {@link #writeTo}.
+     * The input is read through a buffer without recursion. The stream is not closed and nothing
+     * after the trie is read from it, so it may contain more data
+     *
+     * @throws IOException if the stream can not be read or does not contain a trie
+     */
+    public void readFrom(@NotNull InputStream in) throws IOException {
+        var reader = new VarintReader(in, COMPACT_HEADER_SIZE);
+        if (reader.readInt() != COMPACT_FORMAT_MAGIC) {
+            throw new IOException("Not a trie in the compact format");
+        }
+        long length = reader.readLong();
+        if (length <= 0) {
+            throw new IOException("Corrupted length of the trie");
+        }
+        reader.allow(length);
+        int newSize = reader.readVarint();
+        var newRoot = new Node();
+        var nodes = new Node[16];
+        var positions = new int[16];
+        nodes[0] = newRoot;
+        newRoot.readHeader(reader);
+        int depth = 1;
+        while (depth > 0) {
+            var node = nodes[depth - 1];
+            if (positions[depth - 1] == node.transitionsCount) {
+                node.recomputeMaxWeight();
+                node.makeDenseIfCompact();
+                depth--;
+                if (depth > 0) {
+                    nodes[depth - 1].terminalSubtreeSum += node.terminalSubtreeSum;
+                }
+                continue;
+            }
+            var child = new Node();
+            node.children[positions[depth - 1]++] = child;
+            child.readHeader(reader);
+            if (depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                positions = Arrays.copyOf(positions, depth * 2);
+            }
+            nodes[depth] = child;
+            positions[depth] = 0;
+            depth++;
+        }
+        if (newRoot.terminalSubtreeSum != newSize) {
+            throw new IOException("The number of strings does not match the trie");
+        }
+        if (!reader.exhausted()) {
+            throw new IOException("The length does not match the trie");
+        }
+        size = newSize;
+        root = newRoot;
+        modificationsCount++;
+    }
+
+    /**
+     * A string found by {@link #top} or a subtree of strings with the given prefix that is not expanded yet.
+     * Larger weights go first, then smaller strings, and a string goes before its own subtree
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final @NotNull String word;
+        private final @Nullable Node node;
+        private final double weight;
+
+        private Candidate(@NotNull String word, @Nullable Node node, double weight) {
+            this.word = word;
+            this.node = node;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(@NotNull Candidate other) {
+            int byWeight = Double.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            int byWord = word.compareTo(other.word);
+            if (byWord != 0) {
+                return byWord;
+            }
+            return Boolean.compare(node != null, other.node != null);
+        }
+    }
+
+    /**
+     * Walks the subtree of a prefix in depth-first order keeping the path in parallel stacks of nodes
+     * and of the next slots to visit. The slot -1 means that the node itself has not been visited yet
+     */
+    private class PrefixIterator implements Iterator<String> {
+        private final int expectedModificationsCount = modificationsCount;
+        private final @NotNull StringBuilder word;
+        private final int prefixLength;
+        private Node[] nodes = new Node[16];
+        private int[] slots = new int[16];
+        private int depth = 0;
+        private @Nullable String next;
+
+        private PrefixIterator(@NotNull String prefix, int offset) {
+            word = new StringBuilder(prefix);
+            prefixLength = prefix.length();
+            var node = find(prefix);
+            if (node == null || node.terminalSubtreeSum <= offset) {
+                return;
+            }
+            push(node);
+            while (true) {
+                if (node.terminal) {
+                    if (offset == 0) {
+                        break;
+                    }
+                    offset--;
+                }
+                slots[depth - 1] = 0;
+                for (int slot = 0; ; slot++) {
+                    var child = node.childAt(slot);
+                    if (child == null) {
+                        continue;
+                    }
+                    if (child.terminalSubtreeSum <= offset) {
+                        offset -= child.terminalSubtreeSum;
+                        continue;
+                    }
+                    slots[depth - 1] = slot + 1;
+                    word.append(node.edgeAt(slot));
+                    push(child);
+                    node = child;
+                    break;
+                }
+            }
+            next = advance();
+        }
+
+        private void push(@NotNull Node node) {
+            if (depth == nodes.length) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                slots = Arrays.copyOf(slots, depth * 2);
+            }
+            nodes[depth] = node;
+            slots[depth] = -1;
+            depth++;
+        }
+
+        private @Nullable String advance() {
+            while (depth > 0) {
+                var node = nodes[depth - 1];
+                int slot = slots[depth - 1];
+                if (slot == -1) {
+                    slots[depth - 1] = 0;
+                    if (node.terminal) {
+                        return word.toString();
+                    }
+                    continue;
+                }
+                while (slot < node.slotsCount() && node.childAt(slot) == null) {
+                    slot++;
+                }
+                if (slot < node.slotsCount()) {
+                    slots[depth - 1] = slot + 1;
+                    word.append(node.edgeAt(slot));
+                    push(node.childAt(slot));
+                    continue;
+                }
+                nodes[--depth] = null;
+                if (word.length() > prefixLength) {
+                    word.setLength(word.length() - 1);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (expectedModificationsCount != modificationsCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            var current = next;
+            next = advance();
+            return current;
+        }
+    }
+
+    /**
+     * A node keeps its transitions in one of two layouts. A sparse node has sorted edge characters
+     * with a parallel array of children. A node with many transitions in a narrow range of characters
+     * becomes dense: its children are indexed directly by the character minus the first one.
+     * A node without transitions allocates no arrays.
+     */
     private class Node {
+        private static final int DENSE_MINIMAL_TRANSITIONS = 16;
+        private static final int SPARSE_MAXIMAL_TRANSITIONS = 8;
+        private static final int DENSE_MAXIMAL_SPAN_PER_TRANSITION = 2;
         private boolean terminal = false;
         private int terminalSubtreeSum = 0;
-        private @NotNull HashMap<Character, Node> transition = new HashMap<>();
+        private int transitionsCount = 0;
+        private double weight = 0;
+        /** The maximal weight of strings in the subtree, negative infinity if there are none */
+        private double maxWeight = Double.NEGATIVE_INFINITY;
+        private @Nullable char[] edges;
+        private @Nullable Node[] children;
+        private char firstEdge;
+
+        private boolean isDense() {
+            return edges == null && children != null;
+        }
+
+        /** Returns the number of positions that {@link #edgeAt(int)} and {@link #childAt(int)} accept */
+        private int slotsCount() {
+            if (children == null) {
+                return 0;
+            }
+            return isDense() ? children.length : transitionsCount;
+        }
+
+        private char edgeAt(int slot) {
+            return isDense() ? (char) (firstEdge + slot) : edges[slot];
+        }
+
+        /** Returns a child at the given position, it is null for an absent character of a dense node */
+        private @Nullable Node childAt(int slot) {
+            return children[slot];
+        }
 
         private Node getTransition(char c) {
-            return transition.get(c);
+            if (children == null) {
+                return null;
+            }
+            if (isDense()) {
+                int slot = c - firstEdge;
+                return slot >= 0 && slot < children.length ? children[slot] : null;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount, c);
+            return slot >= 0 ? children[slot] : null;
         }
 
-        private void addTransition(char c) {
-            transition.put(c, new Node());
+        /** Adds a transition by a character that is absent and returns the new child */
+        private @NotNull Node addTransition(char c) {
+            var child = new Node();
+            if (isDense()) {
+                int first = Math.min(firstEdge, c);
+                int last = Math.max(firstEdge + children.length - 1, c);
+                if (last - first + 1 <= (transitionsCount + 1) * DENSE_MAXIMAL_SPAN_PER_TRANSITION) {
+                    if (first != firstEdge || last - first + 1 != children.length) {
+                        var table = new Node[last - first + 1];
+                        System.arraycopy(children, 0, table, firstEdge - first, children.length);
+                        children = table;
+                        firstEdge = (char) first;
+                    }
+                    children[c - firstEdge] = child;
+                    transitionsCount++;
+                    return child;
+                }
+                makeSparse();
+            }
+            if (children == null) {
+                edges = new char[2];
+                children = new Node[2];
+            }
+            int slot = -Arrays.binarySearch(edges, 0, transitionsCount, c) - 1;
+            if (transitionsCount == edges.length) {
+                edges = Arrays.copyOf(edges, transitionsCount * 2);
+                children = Arrays.copyOf(children, transitionsCount * 2);
+            }
+            System.arraycopy(edges, slot, edges, slot + 1, transitionsCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, transitionsCount - slot);
+            edges[slot] = c;
+            children[slot] = child;
+            transitionsCount++;
+            makeDenseIfCompact();
+            return child;
         }
 
         private void removeTransition(char c) {
-            transition.remove(c);
+            if (getTransition(c) == null) {
+                return;
+            }
+            transitionsCount--;
+            if (transitionsCount == 0) {
+                edges = null;
+                children = null;
+                return;
+            }
+            if (isDense()) {
+                children[c - firstEdge] = null;
+                if (transitionsCount <= SPARSE_MAXIMAL_TRANSITIONS) {
+                    makeSparse();
+                }
+                return;
+            }
+            int slot = Arrays.binarySearch(edges, 0, transitionsCount + 1, c);
+            System.arraycopy(edges, slot + 1, edges, slot, transitionsCount - slot);
+            System.arraycopy(children, slot + 1, children, slot, transitionsCount - slot);
+            children[transitionsCount] = null;
+        }
+
+        private void recomputeMaxWeight() {
+            double maximal = terminal ? weight : Double.NEGATIVE_INFINITY;
+            for (int slot = 0; slot < slotsCount(); slot++) {
+                var child = childAt(slot);
+                if (child != null) {
+                    maximal = Math.max(maximal, child.maxWeight);
+                }
+            }
+            maxWeight = maximal;
+        }
+
+        /** Becomes dense if a sparse node has many transitions in a narrow range of characters */
+        private void makeDenseIfCompact() {
+            if (edges != null && transitionsCount >= DENSE_MINIMAL_TRANSITIONS && edges[transitionsCount - 1]
+                    - edges[0] + 1 <= transitionsCount * DENSE_MAXIMAL_SPAN_PER_TRANSITION) {
+                makeDense();
+            }
+        }
+
+        /**
+         * Reads the terminal flag, the weight and the edge characters written by {@link Trie#writeTo}.
+         * The node gets a sparse layout of exactly this size, children are to be set by the caller
+         */
+        private void readHeader(@NotNull VarintReader reader) throws IOException {
+            int header = reader.readVarint();
+            if (header < 0 || header >>> 2 > Character.MAX_VALUE + 1 || (header & 3) == 2) {
+                throw new IOException("Malformed node");
+            }
+            terminal = (header & 1) != 0;
+            terminalSubtreeSum = terminal ? 1 : 0;
+            if ((header & 2) != 0) {
+                weight = Double.longBitsToDouble(reader.readLong());
+                if (Double.isNaN(weight)) {
+                    throw new IOException("Malformed node");
+                }
+            }
+            transitionsCount = header >>> 2;
+            if (transitionsCount == 0) {
+                return;
+            }
+            edges = new char[transitionsCount];
+            children = new Node[transitionsCount];
+            int previous = -1;
+            for (int i = 0; i < transitionsCount; i++) {
+                int edge = Math.max(previous, 0) + reader.readVarint();
+                if (edge <= previous || edge > Character.MAX_VALUE) {
+                    throw new IOException("Malformed node");
+                }
+                edges[i] = (char) edge;
+                previous = edge;
+            }
+        }
+
+        private void makeDense() {
+            var table = new Node[edges[transitionsCount - 1] - edges[0] + 1];
+            for (int i = 0; i < transitionsCount; i++) {
+                table[edges[i] - edges[0]] = children[i];
+            }
+            firstEdge = edges[0];
+            edges = null;
+            children = table;
+        }
+
+        private void makeSparse() {
+            var sparseEdges = new char[transitionsCount];
+            var sparseChildren = new Node[transitionsCount];
+            int count = 0;
+            for (int slot = 0; slot < children.length; slot++) {
+                if (children[slot] != null) {
+                    sparseEdges[count] = (char) (firstEdge + slot);
+                    sparseChildren[count++] = children[slot];
+                }
+            }
+            edges = sparseEdges;
+            children = sparseChildren;
         }
 
         private void serialize(@NotNull DataOutputStream out) throws IOException {
             out.writeBoolean(terminal);
+            if (terminal) {
+                out.writeDouble(weight);
+            }
             out.writeInt(terminalSubtreeSum);
-            out.writeInt(transition.size());
-            for (var entry : transition.entrySet()) {
-                out.writeChar(entry.getKey());
-                entry.getValue().serialize(out);
+            out.writeInt(transitionsCount);
+            for (int slot = 0; slot < slotsCount(); slot++) {
+                var child = childAt(slot);
+                if (child != null) {
+                    out.writeChar(edgeAt(slot));
+                    child.serialize(out);
+                }
             }
         }
 
         private void deserialize(@NotNull DataInputStream in) throws IOException {
             terminal = in.readBoolean();
+            weight = terminal ? in.readDouble() : 0;
             terminalSubtreeSum = in.readInt();
             int transitionsNumber = in.readInt();
-            transition.clear();
+            transitionsCount = 0;
+            edges = null;
+            children = null;
             for (int i = 0; i < transitionsNumber; i++) {
-                Character edge = in.readChar();
-                Node child = new Node();
-                child.deserialize(in);
-                transition.put(edge, child);
+                char edge = in.readChar();
+                addTransition(edge);
+                getTransition(edge).deserialize(in);
             }
+            recomputeMaxWeight();
         }
 
         @Override
@@ -181,14 +1043,37 @@ public class Trie implements Serializable, UniterableSet<String> {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             Node node = (Node) o;
-            return terminal == node.terminal &&
-                    terminalSubtreeSum == node.terminalSubtreeSum &&
-                    transition.equals(node.transition);
+            if (terminal != node.terminal || terminalSubtreeSum != node.terminalSubtreeSum
+                    || transitionsCount != node.transitionsCount || Double.compare(weight, node.weight) != 0) {
+                return false;
+            }
+            int otherSlot = 0;
+            for (int slot = 0; slot < slotsCount(); slot++) {
+                var child = childAt(slot);
+                if (child == null) {
+                    continue;
+                }
+                while (node.childAt(otherSlot) == null) {
+                    otherSlot++;
+                }
+                if (edgeAt(slot) != node.edgeAt(otherSlot) || !child.equals(node.childAt(otherSlot))) {
+                    return false;
+                }
+                otherSlot++;
+            }
+            return true;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(terminal, terminalSubtreeSum, transition);
+            int transitionsHash = 0;
+            for (int slot = 0; slot < slotsCount(); slot++) {
+                var child = childAt(slot);
+                if (child != null) {
+                    transitionsHash += edgeAt(slot) ^ child.hashCode();
+                }
+            }
+            return Objects.hash(terminal, terminalSubtreeSum, weight, transitionsHash);
         }
     }
 }
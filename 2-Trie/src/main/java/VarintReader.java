@@ -0,0 +1,84 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads numbers written by {@link VarintWriter} from an InputStream through its own buffer.
+ * The stream is never closed, and no more bytes than allowed are taken from it,
+ * so the bytes after the numbers are left for the next reader.
+ */
+class VarintReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final @NotNull InputStream in;
+    private final @NotNull byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private long remaining;
+
+    /**
+     * Creates a reader of the stream
+     *
+     * @param in      the stream to read
+     * @param allowed the number of bytes that may be taken from the stream
+     */
+    VarintReader(@NotNull InputStream in, long allowed) {
+        this.in = in;
+        remaining = allowed;
+    }
+
+    /** Allows the given number of bytes more to be taken from the stream */
+    void allow(long bytes) {
+        remaining += bytes;
+    }
+
+    /** Checks whether all allowed bytes have been read */
+    boolean exhausted() {
+        return position == limit && remaining == 0;
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            limit = remaining == 0 ? -1 : in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                throw new EOFException();
+            }
+            remaining -= limit;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /** Reads eight bytes of a number, the highest first */
+    long readLong() throws IOException {
+        return (long) readInt() << 32 | Integer.toUnsignedLong(readInt());
+    }
+
+    /** Reads four bytes of a number, the highest first */
+    int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Reads a varint
+     *
+     * @throws IOException if the varint is longer than five bytes
+     */
+    int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int current = readByte();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,67 @@
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes numbers into an OutputStream through its own buffer. Non-negative numbers are written as varints:
+ * seven bits per byte starting from the lowest ones, the highest bit of a byte is set if more bytes follow.
+ * The stream is never closed.
+ */
+class VarintWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final @NotNull OutputStream out;
+    private final @NotNull byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private long written = 0;
+
+    VarintWriter(@NotNull OutputStream out) {
+        this.out = out;
+    }
+
+    private void ensureSpace(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            out.write(buffer, 0, position);
+            written += position;
+            position = 0;
+        }
+    }
+
+    /** Writes four bytes of the number, the highest first */
+    void writeInt(int value) throws IOException {
+        ensureSpace(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    /** Writes eight bytes of the number, the highest first */
+    void writeLong(long value) throws IOException {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    /** Writes a number as a varint, a negative number takes five bytes */
+    void writeVarint(int value) throws IOException {
+        ensureSpace(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /** Returns the number of bytes written so far including the buffered ones */
+    long size() {
+        return written + position;
+    }
+
+    /** Writes the buffered bytes and flushes the stream */
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        written += position;
+        position = 0;
+        out.flush();
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AhoCorasickTest {
+    private static AhoCorasick matcher(String... patterns) {
+        var trie = new Trie();
+        trie.addAll(Arrays.asList(patterns));
+        return trie.compileMatcher();
+    }
+
+    private static List<AhoCorasick.Match> naive(String text, String... patterns) {
+        var matches = new ArrayList<AhoCorasick.Match>();
+        var sorted = patterns.clone();
+        Arrays.sort(sorted, (first, second) -> second.length() - first.length());
+        for (int end = 1; end <= text.length(); end++) {
+            for (var pattern : sorted) {
+                if (!pattern.isEmpty() && end >= pattern.length()
+                        && text.startsWith(pattern, end - pattern.length())) {
+                    matches.add(new AhoCorasick.Match(end - pattern.length(), end, pattern));
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    void classic() {
+        var matcher = matcher("he", "she", "his", "hers");
+        assertEquals(Arrays.asList(new AhoCorasick.Match(1, 4, "she"), new AhoCorasick.Match(2, 4, "he"),
+                new AhoCorasick.Match(2, 6, "hers")), matcher.findAll("ushers"));
+        assertEquals(4, matcher.maximalLength());
+        assertEquals(List.of(), matcher.findAll("xyz"));
+    }
+
+    @Test
+    void overlapping() {
+        var matcher = matcher("a", "aa", "aaa", "");
+        assertEquals(naive("aaaa", "a", "aa", "aaa"), matcher.findAll("aaaa"));
+        assertEquals(9, matcher.findAll("aaaa").size());
+        assertEquals(List.of(), matcher("").findAll("abc"));
+        assertEquals(List.of(), new Trie().compileMatcher().findAll("abc"));
+    }
+
+    @Test
+    void reader() throws IOException {
+        var patterns = new String[]{"ab", "bab", "b", "abba"};
+        var matcher = matcher(patterns);
+        var text = "abbababba".repeat(3000);
+        var matches = new ArrayList<AhoCorasick.Match>();
+        matcher.scan(new StringReader(text), (start, end, pattern) ->
+                matches.add(new AhoCorasick.Match(start, end, pattern)));
+        assertEquals(matcher.findAll(text), matches);
+        assertEquals(naive(text.substring(0, 100), patterns), matcher.findAll(text.substring(0, 100)));
+    }
+
+    @Test
+    void parallel() {
+        var random = new Random(3);
+        var patterns = new String[50];
+        for (int i = 0; i < patterns.length; i++) {
+            var builder = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                builder.append((char) ('a' + random.nextInt(3)));
+            }
+            patterns[i] = builder.toString();
+        }
+        var builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        var text = builder.toString();
+        var matcher = matcher(patterns);
+        var expected = matcher.findAll(text);
+        assertEquals(naive(text, new TreeSet<>(Arrays.asList(patterns)).toArray(new String[0])), expected);
+        for (int chunkSize : new int[]{1, 2, 5, 7, 100, 4999, 5000, 10000}) {
+            assertEquals(expected, matcher.findAllParallel(text, chunkSize), "chunk size " + chunkSize);
+        }
+        assertThrows(IllegalArgumentException.class, () -> matcher.findAllParallel(text, 0));
+    }
+
+    @Test
+    void largeAlphabet() {
+        var patterns = new String[3000];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = "" + (char) (0x4e00 + i) + (char) (0x4e00 + (i * 7) % patterns.length) + (char) ('a' + i % 3);
+        }
+        var matcher = matcher(patterns);
+        var builder = new StringBuilder();
+        var random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            builder.append(random.nextInt(4) == 0 ? (char) ('a' + random.nextInt(3))
+                    : (char) (0x4e00 + random.nextInt(patterns.length)));
+        }
+        for (int i = 0; i < 100; i++) {
+            builder.append(patterns[random.nextInt(patterns.length)]);
+        }
+        var text = builder.toString();
+        var expected = naive(text, patterns);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, matcher.findAll(text));
+        assertEquals(expected, matcher.findAllParallel(text, 1000));
+    }
+}
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTrieTest {
+    private static final int THREADS_NUMBER = 8;
+    private static final int WORDS_PER_THREAD = 3000;
+    private String[] simpleStrings = {"aba", "caba", "abab", "abacaba", "abracadabra", "baca", ""};
+
+    private void runConcurrently(int threadsNumber, ThreadBody body) throws InterruptedException {
+        var barrier = new CyclicBarrier(threadsNumber);
+        var failed = new AtomicBoolean();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadsNumber; i++) {
+            int index = i;
+            threads.add(new Thread(() -> {
+                try {
+                    barrier.await();
+                    body.run(index);
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                    failed.set(true);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+
+    /** Returns words of a thread, words of different threads share short prefixes */
+    private static String word(int thread, int index) {
+        return (char) ('a' + index % 3) + Integer.toString(index, 7) + "x" + thread;
+    }
+
+    private static void assertSameAs(Trie expected, ConcurrentTrie actual, Iterable<String> words) {
+        assertEquals(expected.size(), actual.size());
+        for (var word : words) {
+            for (int length = 0; length <= word.length(); length++) {
+                var prefix = word.substring(0, length);
+                assertEquals(expected.contains(prefix), actual.contains(prefix), prefix);
+                assertEquals(expected.howManyStartWithPrefix(prefix), actual.howManyStartWithPrefix(prefix), prefix);
+            }
+        }
+    }
+
+    @Test
+    void sequential() {
+        var trie = new ConcurrentTrie();
+        assertFalse(trie.contains(""));
+        trie.addAll(Arrays.asList(simpleStrings));
+        assertEquals(7, trie.size());
+        for (var string : simpleStrings) {
+            assertTrue(trie.contains(string));
+            assertFalse(trie.add(string));
+        }
+        assertFalse(trie.contains("ab"));
+        assertEquals(4, trie.howManyStartWithPrefix("ab"));
+        assertEquals(7, trie.howManyStartWithPrefix(""));
+        assertEquals(0, trie.howManyStartWithPrefix("x"));
+        assertTrue(trie.remove("abacaba"));
+        assertFalse(trie.remove("abacaba"));
+        assertFalse(trie.contains("abacaba"));
+        assertEquals(0, trie.howManyStartWithPrefix("abac"));
+        assertTrue(trie.contains("aba"));
+        assertTrue(trie.remove(""));
+        assertFalse(trie.contains(""));
+        trie.removeAll(Arrays.asList(simpleStrings));
+        assertEquals(0, trie.size());
+        assertEquals(0, trie.howManyStartWithPrefix(""));
+        assertTrue(trie.add("abacaba"));
+        assertEquals(1, trie.howManyStartWithPrefix("a"));
+    }
+
+    @Test
+    void concurrentAddsOfSameWords() throws InterruptedException {
+        var trie = new ConcurrentTrie();
+        var added = new AtomicInteger();
+        runConcurrently(THREADS_NUMBER, thread -> {
+            for (int i = 0; i < WORDS_PER_THREAD; i++) {
+                if (trie.add(word(0, (i * (thread + 1)) % WORDS_PER_THREAD))) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+        var expected = new Trie();
+        var words = new ArrayList<String>();
+        for (int i = 0; i < WORDS_PER_THREAD; i++) {
+            words.add(word(0, i));
+            expected.add(word(0, i));
+        }
+        assertEquals(WORDS_PER_THREAD, added.get());
+        assertSameAs(expected, trie, words);
+    }
+
+    @Test
+    void concurrentAddsAndRemoves() throws InterruptedException {
+        var trie = new ConcurrentTrie();
+        var stable = new ArrayList<String>();
+        for (int i = 0; i < WORDS_PER_THREAD; i++) {
+            stable.add(word(THREADS_NUMBER, i));
+        }
+        trie.addAll(stable);
+        var writersDone = new AtomicInteger();
+        runConcurrently(THREADS_NUMBER + 2, thread -> {
+            if (thread >= THREADS_NUMBER) {
+                while (writersDone.get() < THREADS_NUMBER) {
+                    for (var word : stable) {
+                        assertTrue(trie.contains(word), word);
+                        assertTrue(trie.howManyStartWithPrefix(word.substring(0, 2)) >= 1, word);
+                    }
+                }
+                return;
+            }
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < WORDS_PER_THREAD; i++) {
+                    assertTrue(trie.add(word(thread, i)));
+                }
+                for (int i = round % 2; i < WORDS_PER_THREAD; i += 2) {
+                    assertTrue(trie.remove(word(thread, i)));
+                }
+                for (int i = 1 - round % 2; i < WORDS_PER_THREAD; i += 2) {
+                    assertTrue(trie.remove(word(thread, i)));
+                }
+            }
+            for (int i = 0; i < WORDS_PER_THREAD; i += 3) {
+                assertTrue(trie.add(word(thread, i)));
+            }
+            writersDone.incrementAndGet();
+        });
+        var expected = new Trie();
+        var words = new ArrayList<>(stable);
+        expected.addAll(stable);
+        for (int thread = 0; thread < THREADS_NUMBER; thread++) {
+            for (int i = 0; i < WORDS_PER_THREAD; i++) {
+                words.add(word(thread, i));
+                if (i % 3 == 0) {
+                    expected.add(word(thread, i));
+                }
+            }
+        }
+        assertSameAs(expected, trie, words);
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int index) throws Exception;
+    }
+}
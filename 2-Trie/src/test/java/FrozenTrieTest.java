@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrozenTrieTest {
+    private String[] simpleStrings = {"aba", "caba", "abab", "abacaba", "abracadabra", "baca", ""};
+
+    private Trie simpleTrie() {
+        var trie = new Trie();
+        trie.addAll(Arrays.asList(simpleStrings));
+        return trie;
+    }
+
+    private void assertSameQueries(Trie trie, FrozenTrie frozen, String... queries) {
+        assertEquals(trie.size(), frozen.size());
+        for (var query : queries) {
+            for (int length = 0; length <= query.length(); length++) {
+                var prefix = query.substring(0, length);
+                assertEquals(trie.contains(prefix), frozen.contains(prefix), prefix);
+                assertEquals(trie.howManyStartWithPrefix(prefix), frozen.howManyStartWithPrefix(prefix), prefix);
+            }
+        }
+    }
+
+    @Test
+    void empty() {
+        var frozen = new Trie().freeze();
+        assertEquals(0, frozen.size());
+        assertFalse(frozen.contains(""));
+        assertFalse(frozen.contains("a"));
+        assertEquals(0, frozen.howManyStartWithPrefix(""));
+    }
+
+    @Test
+    void simple() {
+        var trie = simpleTrie();
+        var frozen = trie.freeze();
+        assertSameQueries(trie, frozen, simpleStrings);
+        assertSameQueries(trie, frozen, "abc", "cab", "abacabad", "x", "\uffff");
+        assertEquals(7, frozen.howManyStartWithPrefix(""));
+        assertEquals(4, frozen.howManyStartWithPrefix("ab"));
+    }
+
+    @Test
+    void notChangedByTrie() {
+        var trie = simpleTrie();
+        var frozen = trie.freeze();
+        trie.remove("aba");
+        trie.add("zzz");
+        assertTrue(frozen.contains("aba"));
+        assertFalse(frozen.contains("zzz"));
+        assertEquals(7, frozen.size());
+    }
+
+    @Test
+    void wideAlphabet() {
+        var trie = new Trie();
+        var strings = new String[]{"\u0000", "\uffff", "\u0430\u0431\u0432", "\u0430\uffff", "a\u0000b"};
+        trie.addAll(Arrays.asList(strings));
+        for (char c = 'a'; c < 'a' + 40; c += 2) {
+            trie.add("x" + c);
+        }
+        assertSameQueries(trie, trie.freeze(), strings);
+        assertSameQueries(trie, trie.freeze(), "xa", "xb", "xc", "x\u0000", "\u0430\u0431");
+    }
+
+    @Test
+    void randomWords() {
+        var random = new Random(42);
+        var trie = new Trie();
+        var words = new String[5000];
+        for (int i = 0; i < words.length; i++) {
+            var word = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+            if (i % 2 == 0) {
+                trie.add(words[i]);
+            }
+        }
+        assertSameQueries(trie, trie.freeze(), words);
+    }
+
+    @Test
+    void mapSerialized() throws IOException {
+        var trie = simpleTrie();
+        var file = Files.createTempFile("frozen-trie", ".dat");
+        try {
+            try (var out = Files.newOutputStream(file)) {
+                trie.freeze().serialize(out);
+            }
+            var mapped = FrozenTrie.map(file);
+            assertSameQueries(trie, mapped, simpleStrings);
+            assertSameQueries(trie, mapped, "abc", "x", "abacabad");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void serializeKeepsStreamOpen() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var frozen = simpleTrie().freeze();
+        frozen.serialize(out);
+        int length = out.size();
+        frozen.serialize(out);
+        assertEquals(2 * length, out.size());
+    }
+
+    @Test
+    void mapBrokenFile() throws IOException {
+        var file = Files.createTempFile("frozen-trie", ".dat");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+            assertThrows(IOException.class, () -> FrozenTrie.map(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenericTrieTest {
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void byteTrie() {
+        var trie = new ByteTrie();
+        assertTrue(trie.add(bytes("http://a.org/x")));
+        assertTrue(trie.add(bytes("http://a.org/y")));
+        assertTrue(trie.add(new byte[]{(byte) 0xFF, 0, (byte) 0x80}));
+        assertTrue(trie.add(new byte[0]));
+        assertFalse(trie.add(bytes("http://a.org/x")));
+        assertEquals(4, trie.size());
+        assertTrue(trie.contains(new byte[]{(byte) 0xFF, 0, (byte) 0x80}));
+        assertFalse(trie.contains(new byte[]{(byte) 0xFF, 0}));
+        assertTrue(trie.contains(new byte[0]));
+        assertEquals(2, trie.howManyStartWithPrefix(bytes("http://a.org/")));
+        assertEquals(1, trie.howManyStartWithPrefix(new byte[]{(byte) 0xFF}));
+        assertEquals(4, trie.howManyStartWithPrefix(new byte[0]));
+        assertTrue(trie.remove(bytes("http://a.org/y")));
+        assertFalse(trie.remove(bytes("http://a.org/y")));
+        assertEquals(1, trie.howManyStartWithPrefix(bytes("http://")));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void ranges() {
+        var trie = new ByteTrie();
+        var buffer = bytes("GET /index.html HTTP/1.1");
+        assertTrue(trie.add(buffer, 4, 11));
+        assertTrue(trie.contains(bytes("/index.html")));
+        assertTrue(trie.contains(buffer, 4, 11));
+        assertFalse(trie.contains(buffer, 4, 10));
+        assertFalse(trie.add(bytes("/index.html"), 0, 11));
+        assertEquals(1, trie.howManyStartWithPrefix(buffer, 4, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> trie.add(buffer, 20, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> trie.contains(buffer, -1, 2));
+        assertTrue(trie.remove(buffer, 4, 11));
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void codePointTrie() {
+        var trie = new CodePointTrie();
+        var smile = "\ud83d\ude00";
+        var sad = "\ud83d\ude1e";
+        assertTrue(trie.add(smile));
+        assertTrue(trie.add(sad));
+        assertTrue(trie.add(smile + "a"));
+        assertTrue(trie.add("\ud83d"));
+        assertEquals(4, trie.size());
+        assertEquals(2, trie.howManyStartWithPrefix(smile));
+        assertEquals(1, trie.howManyStartWithPrefix("\ud83d"));
+        assertTrue(trie.contains("\ud83d"));
+        assertFalse(trie.contains("\ude00"));
+        assertTrue(trie.contains("x" + sad, 1, 2));
+        var codePoints = (smile + "a").codePoints().toArray();
+        assertEquals(2, codePoints.length);
+        assertTrue(trie.contains(codePoints, 0, 2));
+        assertTrue(trie.contains(codePoints, 0, 1));
+        assertEquals(2, trie.howManyStartWithPrefix(codePoints, 0, 1));
+        assertFalse(trie.add(codePoints, 0, 1));
+        assertTrue(trie.remove(codePoints, 0, 2));
+        assertFalse(trie.contains(smile + "a"));
+        assertTrue(trie.add(new int[]{'b', 0x10FFFF}, 0, 2));
+        assertTrue(trie.contains("b\udbff\udfff"));
+    }
+
+    @Test
+    void randomOperationsMatchGenericTrie() {
+        var random = new Random(18);
+        var byteTrie = new ByteTrie();
+        var genericByteTrie = new GenericTrie<>(KeyUnits.BYTES);
+        var codePointTrie = new CodePointTrie();
+        var genericCodePointTrie = new GenericTrie<>(KeyUnits.STRING_CODE_POINTS);
+        int[] alphabet = {'a', 'b', 0x7F, 0xFF, 0x4E00, 0x1F600};
+        for (int i = 0; i < 20000; i++) {
+            var builder = new StringBuilder();
+            int length = random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                builder.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+            }
+            var string = builder.toString();
+            var key = bytes(string);
+            if (random.nextInt(3) == 0) {
+                assertEquals(genericByteTrie.remove(key), byteTrie.remove(key));
+                assertEquals(genericCodePointTrie.remove(string), codePointTrie.remove(string));
+            } else {
+                assertEquals(genericByteTrie.add(key), byteTrie.add(key));
+                assertEquals(genericCodePointTrie.add(string), codePointTrie.add(string));
+            }
+            assertEquals(genericByteTrie.size(), byteTrie.size());
+            assertEquals(genericCodePointTrie.size(), codePointTrie.size());
+            assertEquals(genericByteTrie.howManyStartWithPrefix(key, 0, key.length / 2),
+                    byteTrie.howManyStartWithPrefix(key, 0, key.length / 2));
+            var codePoints = string.codePoints().toArray();
+            assertEquals(genericCodePointTrie.howManyStartWithPrefix(string),
+                    codePointTrie.howManyStartWithPrefix(codePoints, 0, codePoints.length));
+            assertEquals(genericCodePointTrie.howManyStartWithPrefix(string, 0, string.length() / 2),
+                    codePointTrie.howManyStartWithPrefix(string, 0, string.length() / 2));
+            assertEquals(genericCodePointTrie.contains(string), codePointTrie.contains(codePoints, 0, codePoints.length));
+        }
+    }
+
+    @Test
+    void customUnits() {
+        var trie = new GenericTrie<List<Integer>>(new KeyUnits<>() {
+            @Override
+            public int length(List<Integer> key) {
+                return key.size();
+            }
+
+            @Override
+            public int unitAt(List<Integer> key, int position) {
+                return key.get(position);
+            }
+        });
+        trie.addAll(Arrays.asList(List.of(1, 2, 3), List.of(1, 2), List.of(7), List.of(1, 2)));
+        assertEquals(3, trie.size());
+        assertEquals(2, trie.howManyStartWithPrefix(List.of(1)));
+        assertTrue(trie.contains(List.of(1, 2)));
+        trie.removeAll(Arrays.asList(List.of(1, 2), List.of(7)));
+        assertEquals(1, trie.size());
+        assertEquals(1, trie.howManyStartWithPrefix(List.of(1, 2)));
+        assertFalse(trie.contains(List.of(1, 2)));
+        assertTrue(trie.contains(List.of(1, 2, 3)));
+    }
+}
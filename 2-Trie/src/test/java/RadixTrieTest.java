@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest {
+    private String[] simpleStrings = {"aba", "caba", "abab", "abacaba", "abracadabra", "baca", ""};
+
+    @Test
+    void simple() {
+        var trie = new RadixTrie();
+        assertFalse(trie.contains(""));
+        trie.addAll(Arrays.asList(simpleStrings));
+        assertEquals(7, trie.size());
+        for (var string : simpleStrings) {
+            assertTrue(trie.contains(string));
+            assertFalse(trie.add(string));
+        }
+        assertFalse(trie.contains("ab"));
+        assertFalse(trie.contains("abac"));
+        assertFalse(trie.contains("abacabad"));
+        assertEquals(4, trie.howManyStartWithPrefix("ab"));
+        assertEquals(1, trie.howManyStartWithPrefix("abab"));
+        assertEquals(1, trie.howManyStartWithPrefix("abrac"));
+        assertEquals(0, trie.howManyStartWithPrefix("abrax"));
+        assertEquals(7, trie.howManyStartWithPrefix(""));
+        assertTrue(trie.remove("abacaba"));
+        assertFalse(trie.remove("abacaba"));
+        assertEquals(0, trie.howManyStartWithPrefix("abac"));
+        assertTrue(trie.contains("aba"));
+        assertTrue(trie.remove(""));
+        assertFalse(trie.contains(""));
+        trie.removeAll(Arrays.asList(simpleStrings));
+        assertEquals(0, trie.size());
+        assertEquals(0, trie.howManyStartWithPrefix(""));
+        assertEquals(1, trie.nodesCount());
+    }
+
+    @Test
+    void splitsAndMergesEdges() {
+        var trie = new RadixTrie();
+        trie.add("romane");
+        assertEquals(2, trie.nodesCount());
+        trie.add("romanus");
+        assertEquals(4, trie.nodesCount());
+        trie.add("roman");
+        assertEquals(4, trie.nodesCount());
+        trie.add("rubens");
+        assertEquals(6, trie.nodesCount());
+        assertEquals(3, trie.howManyStartWithPrefix("rom"));
+        assertEquals(4, trie.howManyStartWithPrefix("r"));
+
+        trie.remove("roman");
+        assertEquals(6, trie.nodesCount());
+        trie.remove("romanus");
+        assertEquals(4, trie.nodesCount());
+        assertTrue(trie.contains("romane"));
+        assertFalse(trie.contains("roman"));
+        assertEquals(1, trie.howManyStartWithPrefix("roma"));
+        trie.remove("rubens");
+        assertEquals(2, trie.nodesCount());
+        assertTrue(trie.contains("romane"));
+        assertEquals(1, trie.howManyStartWithPrefix("rom"));
+    }
+
+    @Test
+    void randomAgainstTrie() {
+        var random = new Random(7);
+        var expected = new Trie();
+        var trie = new RadixTrie();
+        var words = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++) {
+            var builder = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                builder.append((char) ('a' + random.nextInt(3)));
+            }
+            words.add(builder.toString());
+        }
+        for (int round = 0; round < 4; round++) {
+            for (var word : words) {
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(word), trie.remove(word), word);
+                } else {
+                    assertEquals(expected.add(word), trie.add(word), word);
+                }
+            }
+            assertEquals(expected.size(), trie.size());
+            for (var word : words) {
+                assertEquals(expected.contains(word), trie.contains(word), word);
+                assertEquals(expected.howManyStartWithPrefix(word), trie.howManyStartWithPrefix(word), word);
+            }
+        }
+        assertTrue(trie.nodesCount() <= 2 * trie.size() + 1);
+    }
+}
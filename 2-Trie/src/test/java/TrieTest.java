@@ -4,7 +4,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -165,6 +167,7 @@ class TrieTest {
         dataOutput.writeInt(1);
         dataOutput.writeChar('a');
         dataOutput.writeBoolean(true);
+        dataOutput.writeDouble(0);
         dataOutput.writeInt(1);
         dataOutput.writeInt(0);
         var trieOutput = new ByteArrayOutputStream();
@@ -207,6 +210,7 @@ class TrieTest {
         dataOutput.writeInt(1);
         dataOutput.writeChar('b');
         dataOutput.writeBoolean(true);
+        dataOutput.writeDouble(0);
         dataOutput.writeInt(1);
         dataOutput.writeInt(0);
         var input = new ByteArrayInputStream(output.toByteArray());
@@ -252,4 +256,421 @@ class TrieTest {
         empty.addAll(Arrays.asList(simpleStrings));
         assertEquals(correct, empty);
     }
-}
\ No newline at end of file
+
+    @Test
+    void manyTransitions() throws IOException {
+        var trie = new Trie();
+        var reversed = new Trie();
+        for (char c = 'z'; c >= 'a'; c--) {
+            assertTrue(trie.add("x" + c));
+            assertTrue(trie.add(String.valueOf(c)));
+        }
+        trie.add("\u4e00");
+        trie.add("x\u4e00");
+        for (char c = 'a'; c <= 'z'; c++) {
+            reversed.add(String.valueOf(c));
+            reversed.add("x" + c);
+        }
+        reversed.add("x\u4e00");
+        reversed.add("\u4e00");
+        assertEquals(trie, reversed);
+        assertEquals(trie.hashCode(), reversed.hashCode());
+        checkIdentity(trie);
+        assertEquals(28, trie.howManyStartWithPrefix("x"));
+        for (char c = 'a'; c <= 'z'; c++) {
+            assertTrue(trie.contains("x" + c));
+            assertFalse(trie.contains("y" + c));
+        }
+        for (char c = 'a'; c <= 'w'; c++) {
+            assertTrue(trie.remove("x" + c));
+            assertTrue(trie.remove(String.valueOf(c)));
+        }
+        assertEquals(5, trie.howManyStartWithPrefix("x"));
+        assertTrue(trie.contains("xz"));
+        assertTrue(trie.contains("x\u4e00"));
+        assertFalse(trie.contains("xa"));
+        assertEquals(8, trie.size());
+    }
+
+    @Test
+    void iterator() {
+        var simple = simpleTrie();
+        var words = new ArrayList<String>();
+        simple.iterator("").forEachRemaining(words::add);
+        var sorted = simpleStrings.clone();
+        Arrays.sort(sorted);
+        assertEquals(Arrays.asList(sorted), words);
+        words.clear();
+        simple.iterator("ab").forEachRemaining(words::add);
+        assertEquals(Arrays.asList("aba", "abab", "abacaba", "abracadabra"), words);
+        assertFalse(simple.iterator("abc").hasNext());
+        assertFalse(new Trie().iterator("").hasNext());
+        assertThrows(NoSuchElementException.class, () -> new Trie().iterator("").next());
+    }
+
+    @Test
+    void iteratorOverManyTransitions() {
+        var trie = new Trie();
+        var expected = new ArrayList<String>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            expected.add("x" + c);
+            expected.add("x" + c + c);
+        }
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            trie.add(expected.get(i));
+        }
+        expected.sort(null);
+        assertEquals(expected, trie.stream("x").collect(Collectors.toList()));
+        assertEquals(52, trie.stream("").count());
+    }
+
+    @Test
+    void iteratorDetectsModification() {
+        var simple = simpleTrie();
+        var iterator = simple.iterator("");
+        iterator.next();
+        simple.add("x");
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void startingWith() {
+        var simple = simpleTrie();
+        var sorted = simpleStrings.clone();
+        Arrays.sort(sorted);
+        for (int offset = 0; offset <= sorted.length + 1; offset++) {
+            for (int limit = 0; limit <= sorted.length + 1; limit++) {
+                var expected = Arrays.asList(sorted)
+                        .subList(Math.min(offset, sorted.length), Math.min(offset + limit, sorted.length));
+                assertEquals(expected, simple.startingWith("", offset, limit));
+            }
+        }
+        assertEquals(Arrays.asList("abacaba", "abracadabra"), simple.startingWith("ab", 2, 10));
+        assertEquals(Collections.emptyList(), simple.startingWith("abc", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> simple.startingWith("", -1, 1));
+    }
+
+    private static Trie weightedTrie(String[] strings, ToDoubleFunction<String> weight) {
+        var trie = new Trie();
+        for (var string : strings) {
+            trie.add(string, weight.applyAsDouble(string));
+        }
+        return trie;
+    }
+
+    @Test
+    void top() {
+        var byLength = weightedTrie(simpleStrings, String::length);
+        assertEquals(Arrays.asList("abracadabra", "abacaba", "abab"), byLength.top("ab", 3));
+        assertEquals(Arrays.asList("abab", "baca", "caba"), byLength.top("", 5).subList(2, 5));
+        var byShortness = weightedTrie(simpleStrings, word -> -word.length());
+        assertEquals(Arrays.asList("", "aba", "abab"), byShortness.top("", 3));
+        var byPrefix = weightedTrie(simpleStrings, word -> word.startsWith("ab") ? 1 : 0);
+        assertEquals(Arrays.asList("aba", "abab"), byPrefix.top("", 2));
+        assertEquals(Arrays.asList("", "baca", "caba"), byPrefix.top("", 7).subList(4, 7));
+        assertEquals(Collections.emptyList(), byLength.top("", 0));
+        assertEquals(Collections.emptyList(), byLength.top("z", 5));
+        assertEquals(Collections.emptyList(), new Trie().top("", 5));
+        assertEquals(Arrays.asList("", "aba", "abab"), simpleTrie().top("", 3));
+        assertThrows(IllegalArgumentException.class, () -> byLength.top("", -1));
+        assertThrows(IllegalArgumentException.class, () -> byLength.add("a", Double.NaN));
+    }
+
+    @Test
+    void topAfterChangedWeights() {
+        var trie = weightedTrie(simpleStrings, String::length);
+        assertFalse(trie.add("abracadabra", -1));
+        assertFalse(trie.add("abacaba"));
+        assertEquals(Arrays.asList("abacaba", "abab", "aba"), trie.top("ab", 3));
+        assertEquals(Arrays.asList("abacaba", "abab", "baca"), trie.top("", 3));
+        assertTrue(trie.remove("abacaba"));
+        assertEquals(Arrays.asList("abab", "baca", "caba"), trie.top("", 3));
+        assertTrue(trie.remove("abab"));
+        assertEquals(Arrays.asList("aba", "abracadabra"), trie.top("ab", 3));
+        assertTrue(trie.add("abacaba"));
+        assertEquals(Arrays.asList("aba", "abacaba"), trie.top("ab", 2));
+        assertEquals(simpleStrings.length - 1, trie.size());
+        assertEquals(3, trie.howManyStartWithPrefix("ab"));
+    }
+
+    @Test
+    void weightsAreSerialized() throws IOException {
+        var trie = weightedTrie(simpleStrings, word -> word.length() * 0.5 - 2);
+        checkIdentity(trie);
+        checkCompactIdentity(trie);
+        var output = new ByteArrayOutputStream();
+        trie.writeTo(output);
+        var compactTrie = new Trie();
+        compactTrie.readFrom(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(trie.top("", 4), compactTrie.top("", 4));
+        assertNotEquals(simpleTrie(), trie);
+        var sorted = simpleStrings.clone();
+        Arrays.sort(sorted);
+        var bulk = new Trie();
+        bulk.addAll(Arrays.asList(simpleStrings));
+        assertEquals(Arrays.asList(sorted).subList(0, 4), bulk.top("", 4));
+    }
+
+    @Test
+    void topMatchesBruteForce() {
+        var random = new Random(13);
+        var trie = new Trie();
+        var weights = new HashMap<String, Double>();
+        for (int operation = 0; operation < 20_000; operation++) {
+            var word = Integer.toString(random.nextInt(3000), 5);
+            if (random.nextInt(4) == 0) {
+                assertEquals(weights.remove(word) != null, trie.remove(word));
+            } else {
+                double weight = random.nextInt(50);
+                assertEquals(weights.put(word, weight) == null, trie.add(word, weight));
+            }
+            if (operation % 500 == 0) {
+                for (var prefix : Arrays.asList("", "1", "23", "401")) {
+                    var expected = weights.entrySet().stream()
+                            .filter(entry -> entry.getKey().startsWith(prefix))
+                            .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                                    .thenComparing(Map.Entry.comparingByKey()))
+                            .limit(10)
+                            .map(Map.Entry::getKey)
+                            .collect(Collectors.toList());
+                    assertEquals(expected, trie.top(prefix, 10));
+                }
+            }
+        }
+    }
+
+    @Test
+    void compactFormatKeepsStreamOpen() throws IOException {
+        var simple = simpleTrie();
+        var other = new Trie();
+        other.add("x");
+        var output = new ByteArrayOutputStream();
+        simple.writeTo(output);
+        other.writeTo(output);
+        output.write(42);
+        var bytes = output.toByteArray();
+        assertEquals(compactSize(simple) + compactSize(other) + 1, bytes.length);
+        var input = new ByteArrayInputStream(bytes);
+        var first = new Trie();
+        first.readFrom(input);
+        assertEquals(simple, first);
+        var second = new Trie();
+        second.readFrom(input);
+        assertEquals(other, second);
+        assertEquals(42, input.read());
+        assertEquals(-1, input.read());
+    }
+
+    private void checkCompactIdentity(Trie trie) throws IOException {
+        var output = new ByteArrayOutputStream();
+        trie.writeTo(output);
+        var compactTrie = new Trie();
+        compactTrie.add("stale");
+        compactTrie.readFrom(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(trie, compactTrie);
+        assertEquals(trie.size(), compactTrie.size());
+    }
+
+    @Test
+    void compactFormatIdentity() throws IOException {
+        checkCompactIdentity(new Trie());
+        checkCompactIdentity(simpleTrie());
+        var trie = new Trie();
+        for (char c = 'a'; c <= 'z'; c++) {
+            trie.add("x" + c);
+        }
+        trie.add("\u4e00");
+        trie.add("x\u4e00");
+        checkCompactIdentity(trie);
+        var many = new Trie();
+        for (int i = 0; i < 100_000; i++) {
+            many.add(Integer.toString(i * 7919));
+        }
+        checkCompactIdentity(many);
+    }
+
+    private int compactSize(Trie trie) throws IOException {
+        var output = new ByteArrayOutputStream();
+        trie.writeTo(output);
+        return output.size();
+    }
+
+    @Test
+    void compactFormatOfDeepTrie() throws IOException {
+        var trie = new Trie();
+        var word = "ab".repeat(100_000);
+        trie.add(word);
+        trie.add(word.substring(0, 1000));
+        var output = new ByteArrayOutputStream();
+        trie.writeTo(output);
+        var newTrie = new Trie();
+        newTrie.readFrom(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(2, newTrie.size());
+        assertTrue(newTrie.contains(word));
+        assertTrue(newTrie.contains(word.substring(0, 1000)));
+        assertFalse(newTrie.contains(word.substring(0, 1001)));
+        assertEquals(2, newTrie.howManyStartWithPrefix(word.substring(0, 1000)));
+    }
+
+    @Test
+    void compactFormatRejectsMalformedInput() throws IOException {
+        var output = new ByteArrayOutputStream();
+        simpleTrie().writeTo(output);
+        var bytes = output.toByteArray();
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        var trie = simpleTrie();
+        assertThrows(IOException.class, () -> trie.readFrom(new ByteArrayInputStream(truncated)));
+        assertEquals(simpleTrie(), trie);
+        var wrongSize = bytes.clone();
+        wrongSize[12]++;
+        assertThrows(IOException.class, () -> trie.readFrom(new ByteArrayInputStream(wrongSize)));
+        var longer = bytes.clone();
+        longer[11]++;
+        assertThrows(IOException.class, () -> trie.readFrom(new ByteArrayInputStream(longer)));
+        var shorter = bytes.clone();
+        shorter[11]--;
+        assertThrows(IOException.class, () -> trie.readFrom(new ByteArrayInputStream(shorter)));
+        assertEquals(simpleTrie(), trie);
+        assertThrows(IOException.class, () -> trie.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+
+    private static Trie addedOneByOne(List<String> strings) {
+        var trie = new Trie();
+        for (var string : strings) {
+            trie.add(string);
+        }
+        return trie;
+    }
+
+    @Test
+    void addAllIntoEmpty() throws IOException {
+        var unsorted = Arrays.asList(simpleStrings);
+        var trie = new Trie();
+        trie.addAll(unsorted);
+        assertEquals(addedOneByOne(unsorted), trie);
+        checkIdentity(trie);
+        var sorted = new ArrayList<>(unsorted);
+        sorted.sort(null);
+        var sortedTrie = new Trie();
+        sortedTrie.addAll(sorted);
+        assertEquals(trie, sortedTrie);
+        assertEquals(4, sortedTrie.howManyStartWithPrefix("ab"));
+        var empty = new Trie();
+        empty.addAll(Collections.emptyList());
+        assertEquals(new Trie(), empty);
+    }
+
+    @Test
+    void addAllWithDuplicates() {
+        var strings = Arrays.asList("b", "a", "", "ab", "a", "b", "", "abc", "ab");
+        var trie = new Trie();
+        trie.addAll(strings);
+        assertEquals(5, trie.size());
+        assertEquals(addedOneByOne(strings), trie);
+        assertEquals(3, trie.howManyStartWithPrefix("a"));
+    }
+
+    @Test
+    void addAllIntoNotEmpty() {
+        var trie = new Trie();
+        trie.add("abacaba");
+        trie.add("x");
+        trie.addAll(Arrays.asList(simpleStrings));
+        var expected = simpleTrie();
+        expected.add("x");
+        assertEquals(expected, trie);
+    }
+
+    @Test
+    void addAllManyWords() {
+        var random = new Random(17);
+        var strings = new ArrayList<String>();
+        for (int i = 0; i < 20000; i++) {
+            var builder = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                builder.append((char) ('a' + random.nextInt(i % 2 == 0 ? 3 : 26)));
+            }
+            strings.add(builder.toString());
+        }
+        var trie = new Trie();
+        trie.addAll(strings);
+        var expected = addedOneByOne(strings);
+        assertEquals(expected, trie);
+        assertEquals(expected.size(), trie.size());
+        for (var string : strings) {
+            assertEquals(expected.howManyStartWithPrefix(string), trie.howManyStartWithPrefix(string));
+        }
+    }
+
+    @Test
+    void addExistingKeepsCounters() {
+        var simple = simpleTrie();
+        for (var string : simpleStrings) {
+            assertFalse(simple.add(string));
+        }
+        assertEquals(simpleTrie(), simple);
+        assertEquals(4, simple.howManyStartWithPrefix("ab"));
+        assertTrue(simple.add("ab"));
+        assertEquals(5, simple.howManyStartWithPrefix("ab"));
+    }
+
+    private static int distance(String first, String second) {
+        var row = new int[second.length() + 1];
+        Arrays.setAll(row, j -> j);
+        for (int i = 1; i <= first.length(); i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int above = row[j];
+                row[j] = Math.min(diagonal + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1),
+                        Math.min(above, row[j - 1]) + 1);
+                diagonal = above;
+            }
+        }
+        return row[second.length()];
+    }
+
+    @Test
+    void withinDistance() {
+        var simple = simpleTrie();
+        assertEquals(Arrays.asList("aba", "abab"), simple.withinDistance("abac", 1, 10));
+        assertEquals(Collections.singletonList("caba"), simple.withinDistance("caba", 0, 10));
+        assertEquals(Collections.emptyList(), simple.withinDistance("cab", 0, 10));
+        assertEquals(Arrays.asList("", "aba"), simple.withinDistance("", 3, 10));
+        assertEquals(Collections.singletonList("aba"), simple.withinDistance("abab", 3, 1));
+        assertEquals(Collections.emptyList(), simple.withinDistance("abab", 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> simple.withinDistance("a", -1, 1));
+    }
+
+    @Test
+    void withinDistanceMatchesBruteForce() {
+        var random = new Random(5);
+        var strings = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            var builder = new StringBuilder();
+            int length = random.nextInt(7);
+            for (int j = 0; j < length; j++) {
+                builder.append((char) ('a' + random.nextInt(4)));
+            }
+            strings.add(builder.toString());
+        }
+        var trie = new Trie();
+        trie.addAll(strings);
+        var sorted = new ArrayList<>(new TreeSet<>(strings));
+        for (int i = 0; i < 50; i++) {
+            var query = strings.get(random.nextInt(strings.size())) + (char) ('a' + random.nextInt(5));
+            for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+                var expected = new ArrayList<String>();
+                for (var string : sorted) {
+                    if (distance(query, string) <= maxDistance) {
+                        expected.add(string);
+                    }
+                }
+                assertEquals(expected, trie.withinDistance(query, maxDistance, Integer.MAX_VALUE), query);
+                var limited = trie.withinDistance(query, maxDistance, 5);
+                assertEquals(expected.subList(0, Math.min(5, expected.size())), limited, query);
+            }
+        }
+    }
+}
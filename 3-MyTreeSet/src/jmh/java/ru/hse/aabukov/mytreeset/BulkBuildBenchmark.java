@@ -0,0 +1,66 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/** Measures building a set of distinct random integers from a sorted and from a shuffled list */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkBuildBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    private List<Integer> sorted;
+    private List<Integer> shuffled;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var elements = new TreeSet<Integer>();
+        while (elements.size() < size) {
+            elements.add(random.nextInt());
+        }
+        sorted = new ArrayList<>(elements);
+        shuffled = new ArrayList<>(elements);
+        Collections.shuffle(shuffled, random);
+    }
+
+    @Benchmark
+    public Treap<Integer> addSortedOneByOne() {
+        var treap = new Treap<Integer>();
+        for (var element : sorted) {
+            treap.add(element);
+        }
+        return treap;
+    }
+
+    @Benchmark
+    public Treap<Integer> ofSorted() {
+        return Treap.of(sorted);
+    }
+
+    @Benchmark
+    public Treap<Integer> ofShuffled() {
+        return Treap.of(shuffled);
+    }
+
+    @Benchmark
+    public Treap<Integer> parallelOfShuffled() {
+        return Treap.parallelOf(shuffled);
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetOfSorted() {
+        return new TreeSet<>(sorted);
+    }
+}
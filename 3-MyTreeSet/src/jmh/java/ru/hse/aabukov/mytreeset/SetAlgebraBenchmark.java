@@ -0,0 +1,94 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures set operations of a large set with a set of another size. Join-based operations of {@link Treap}
+ * are compared with adding and removing elements one by one. The operations consume their arguments,
+ * so the sets are rebuilt before every invocation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SetAlgebraBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"1000", "1000000"})
+    private int otherSize;
+
+    private List<Integer> elements;
+    private List<Integer> otherElements;
+    private Treap<Integer> treap;
+    private Treap<Integer> otherTreap;
+    private TreeSet<Integer> treeSet;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        var random = new Random(42);
+        elements = sortedRandom(random, size);
+        otherElements = sortedRandom(random, otherSize);
+    }
+
+    private static List<Integer> sortedRandom(Random random, int count) {
+        var set = new TreeSet<Integer>();
+        while (set.size() < count) {
+            set.add(random.nextInt(4 * count));
+        }
+        return new ArrayList<>(set);
+    }
+
+    @Setup(Level.Invocation)
+    public void build() {
+        treap = Treap.of(elements);
+        otherTreap = Treap.of(otherElements);
+        treeSet = new TreeSet<>(elements);
+    }
+
+    @Benchmark
+    public Treap<Integer> union() {
+        treap.unionConsuming(otherTreap);
+        return treap;
+    }
+
+    @Benchmark
+    public Treap<Integer> intersection() {
+        treap.intersectionConsuming(otherTreap);
+        return treap;
+    }
+
+    @Benchmark
+    public Treap<Integer> difference() {
+        treap.differenceConsuming(otherTreap);
+        return treap;
+    }
+
+    @Benchmark
+    public Treap<Integer> addAllOneByOne() {
+        treap.addAll(otherElements);
+        return treap;
+    }
+
+    @Benchmark
+    public Treap<Integer> removeAllOneByOne() {
+        for (var element : otherElements) {
+            treap.remove(element);
+        }
+        return treap;
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetAddAll() {
+        treeSet.addAll(otherElements);
+        return treeSet;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures handing a consistent version of a set to a reader: a copy of {@link Treap} against
+ * {@link PersistentTreap#snapshot()}, and the price of path copying for an addition and a removal
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+    private static final int ACCESS_ORDER_LENGTH = 1 << 16;
+
+    @Param({"1000000"})
+    private int size;
+
+    private Treap<Integer> treap;
+    private PersistentTreap<Integer> persistentTreap;
+    private Integer[] absent;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        treap = new Treap<>();
+        persistentTreap = new PersistentTreap<>();
+        for (int i = 0; i < size; i++) {
+            int element = random.nextInt(Integer.MAX_VALUE) * 2;
+            treap.add(element);
+            persistentTreap.add(element);
+        }
+        absent = new Integer[ACCESS_ORDER_LENGTH];
+        for (int i = 0; i < ACCESS_ORDER_LENGTH; i++) {
+            absent[i] = random.nextInt(Integer.MAX_VALUE) * 2 + 1;
+        }
+    }
+
+    @Benchmark
+    public Treap<Integer> copyTreap() {
+        return Treap.of(treap);
+    }
+
+    @Benchmark
+    public PersistentTreap<Integer> snapshot() {
+        return persistentTreap.snapshot();
+    }
+
+    @Benchmark
+    public boolean treapAddAndRemove() {
+        var element = absent[cursor++ & (ACCESS_ORDER_LENGTH - 1)];
+        treap.add(element);
+        return treap.remove(element);
+    }
+
+    @Benchmark
+    public boolean persistentTreapAddAndRemove() {
+        var element = absent[cursor++ & (ACCESS_ORDER_LENGTH - 1)];
+        persistentTreap.add(element);
+        return persistentTreap.remove(element);
+    }
+}
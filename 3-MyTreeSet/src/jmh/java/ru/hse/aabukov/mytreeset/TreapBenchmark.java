@@ -0,0 +1,74 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single operations on a set of random integers with {@link TreeSet} as a reference.
+ * An added element is removed at once, so the size of the set stays the same
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreapBenchmark {
+    private static final int ACCESS_ORDER_LENGTH = 1 << 16;
+
+    /** A set to benchmark */
+    public enum Implementation {
+        TREAP,
+        TREE_SET
+    }
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"TREAP", "TREE_SET"})
+    private Implementation implementation;
+
+    private Set<Integer> set;
+    private Integer[] present;
+    private Integer[] absent;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        set = implementation == Implementation.TREAP ? new Treap<>() : new TreeSet<>();
+        var random = new Random(42);
+        present = new Integer[ACCESS_ORDER_LENGTH];
+        absent = new Integer[ACCESS_ORDER_LENGTH];
+        for (int i = 0; i < size; i++) {
+            set.add(random.nextInt(Integer.MAX_VALUE) * 2);
+        }
+        var elements = set.toArray(new Integer[0]);
+        for (int i = 0; i < ACCESS_ORDER_LENGTH; i++) {
+            present[i] = elements[random.nextInt(elements.length)];
+            absent[i] = random.nextInt(Integer.MAX_VALUE) * 2 + 1;
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return set.contains(present[cursor++ & (ACCESS_ORDER_LENGTH - 1)]);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        var element = absent[cursor++ & (ACCESS_ORDER_LENGTH - 1)];
+        set.add(element);
+        return set.remove(element);
+    }
+
+    @Benchmark
+    public boolean removeAndAdd() {
+        var element = present[cursor++ & (ACCESS_ORDER_LENGTH - 1)];
+        set.remove(element);
+        return set.add(element);
+    }
+}
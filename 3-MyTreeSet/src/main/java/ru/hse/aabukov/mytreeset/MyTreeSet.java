@@ -1,6 +1,7 @@
 package ru.hse.aabukov.mytreeset;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -32,5 +33,25 @@ public interface MyTreeSet<E> extends Set<E> {
 
     /** {@link TreeSet#higher(E)} **/
     E higher(E e);
+
+
+    /**
+     * Returns the element with the given number of preceding elements in the order of this set
+     *
+     * @throws IndexOutOfBoundsException if the index is negative or not less than the size
+     */
+    E get(int index);
+
+    /** Returns the number of elements preceding the given one in the order of this set or -1 if it is absent */
+    int indexOf(E e);
+
+    /**
+     * Returns an unmodifiable view of elements with indices from the first one inclusive to the second one exclusive
+     * in the order of this set. The view throws {@link java.util.ConcurrentModificationException}
+     * after the set is modified
+     *
+     * @throws IndexOutOfBoundsException if the range is out of bounds of the set
+     */
+    List<E> subList(int fromIndex, int toIndex);
 }
 
@@ -0,0 +1,442 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Works like {@link Treap}, but nodes are never changed: an addition or a removal copies only the nodes
+ * on the path from the root and publishes the new root atomically. So {@link #snapshot()} takes O(1) time,
+ * old versions stay valid, and readers never take locks. Iterators and sublists see the version
+ * at the moment of their creation and never throw {@link ConcurrentModificationException}.
+ * Concurrent modifications retry on a conflict.
+ */
+public class PersistentTreap<E> extends AbstractSet<E> implements MyTreeSet<E> {
+    private final @Nullable Comparator<? super E> comparator;
+    private final boolean reversed;
+    private final @NotNull Version<E> version;
+    private final @NotNull PersistentTreap<E> cachedDescendingSet;
+
+    /** Works like {@link TreeSet#TreeSet()} */
+    public PersistentTreap() {
+        this(null, new Version<>(null, false));
+    }
+
+    /** Works like {@link TreeSet#TreeSet(Comparator)} */
+    public PersistentTreap(@NotNull Comparator<? super E> comparator) {
+        this(comparator, new Version<>(null, false));
+    }
+
+    private PersistentTreap(@Nullable Comparator<? super E> comparator, @NotNull Version<E> version) {
+        this.comparator = comparator;
+        this.version = version;
+        reversed = false;
+        cachedDescendingSet = new PersistentTreap<>(comparator, version, this);
+    }
+
+    private PersistentTreap(@Nullable Comparator<? super E> comparator, @NotNull Version<E> version,
+                            @NotNull PersistentTreap<E> pairSet) {
+        this.comparator = comparator;
+        this.version = version;
+        reversed = true;
+        cachedDescendingSet = pairSet;
+    }
+
+    /** Compares in the ascending order regardless of the view */
+    @SuppressWarnings("unchecked")
+    private int compare(E a, Object b) {
+        if (comparator == null) {
+            return -((Comparable<? super E>) b).compareTo(a);
+        } else {
+            return comparator.compare(a, (E) b);
+        }
+    }
+
+    /**
+     * Returns an unmodifiable set of the current elements in O(1) time, later modifications of this set
+     * do not affect it. A snapshot of the descending view is descending
+     */
+    @NotNull
+    public PersistentTreap<E> snapshot() {
+        var snapshot = new PersistentTreap<E>(comparator, new Version<>(version.root.get(), true));
+        return reversed ? snapshot.cachedDescendingSet : snapshot;
+    }
+
+    /** Works like {@link TreeSet#size()} */
+    @Override
+    public int size() {
+        return size(version.root.get());
+    }
+
+    private static int size(@Nullable Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /** Works like {@link TreeSet#add(Object)}, it throws {@link UnsupportedOperationException} for a snapshot */
+    @Override
+    public boolean add(@Nullable E e) {
+        version.checkModifiable();
+        int priority = ThreadLocalRandom.current().nextInt();
+        while (true) {
+            var root = version.root.get();
+            var newRoot = insert(root, e, priority);
+            if (newRoot == root) {
+                return false;
+            }
+            if (version.root.compareAndSet(root, newRoot)) {
+                return true;
+            }
+        }
+    }
+
+    /** Works like {@link TreeSet#remove(Object)}, it throws {@link UnsupportedOperationException} for a snapshot */
+    @Override
+    public boolean remove(@Nullable Object o) {
+        version.checkModifiable();
+        while (true) {
+            var root = version.root.get();
+            var newRoot = erase(root, o);
+            if (newRoot == root) {
+                return false;
+            }
+            if (version.root.compareAndSet(root, newRoot)) {
+                return true;
+            }
+        }
+    }
+
+    /** Works like {@link TreeSet#clear()}, it throws {@link UnsupportedOperationException} for a snapshot */
+    @Override
+    public void clear() {
+        version.checkModifiable();
+        version.root.set(null);
+    }
+
+    /** Returns a copy of the path to the inserted element or the same node if the element is present */
+    @NotNull
+    private Node<E> insert(@Nullable Node<E> node, @Nullable E e, int priority) {
+        if (node == null) {
+            return new Node<>(e, null, null, priority);
+        }
+        int comparison = compare(node.value, e);
+        if (comparison == 0) {
+            return node;
+        }
+        if (comparison > 0) {
+            var left = insert(node.left, e, priority);
+            if (left == node.left) {
+                return node;
+            }
+            if (left.priority > node.priority) {
+                return new Node<>(left.value, left.left,
+                        new Node<>(node.value, left.right, node.right, node.priority), left.priority);
+            }
+            return new Node<>(node.value, left, node.right, node.priority);
+        } else {
+            var right = insert(node.right, e, priority);
+            if (right == node.right) {
+                return node;
+            }
+            if (right.priority > node.priority) {
+                return new Node<>(right.value, new Node<>(node.value, node.left, right.left, node.priority),
+                        right.right, right.priority);
+            }
+            return new Node<>(node.value, node.left, right, node.priority);
+        }
+    }
+
+    /** Returns a copy of the path without the element or the same node if the element is absent */
+    @Nullable
+    private Node<E> erase(@Nullable Node<E> node, @Nullable Object o) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(node.value, o);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison > 0) {
+            var left = erase(node.left, o);
+            return left == node.left ? node : new Node<>(node.value, left, node.right, node.priority);
+        } else {
+            var right = erase(node.right, o);
+            return right == node.right ? node : new Node<>(node.value, node.left, right, node.priority);
+        }
+    }
+
+    /** Merges treaps copying their inner spines */
+    @Nullable
+    private static <E> Node<E> merge(@Nullable Node<E> left, @Nullable Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node<>(left.value, left.left, merge(left.right, right), left.priority);
+        } else {
+            return new Node<>(right.value, merge(left, right.left), right.right, right.priority);
+        }
+    }
+
+    /** Works like {@link TreeSet#contains(Object)} */
+    @Override
+    public boolean contains(@Nullable Object o) {
+        var node = version.root.get();
+        while (node != null) {
+            int comparison = compare(node.value, o);
+            if (comparison == 0) {
+                return true;
+            }
+            node = comparison < 0 ? node.right : node.left;
+        }
+        return false;
+    }
+
+    /** Returns the first child in the order of this view */
+    @Nullable
+    private Node<E> first(@NotNull Node<E> node) {
+        return reversed ? node.right : node.left;
+    }
+
+    /** Returns the second child in the order of this view */
+    @Nullable
+    private Node<E> second(@NotNull Node<E> node) {
+        return reversed ? node.left : node.right;
+    }
+
+    /** Works like {@link TreeSet#iterator()}, it iterates the version of the moment it is created */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        var root = version.root.get();
+        return new TreapIterator(root, 0, size(root));
+    }
+
+    /** Works like {@link TreeSet#descendingIterator()} */
+    @NotNull
+    @Override
+    public Iterator<E> descendingIterator() {
+        return cachedDescendingSet.iterator();
+    }
+
+    /** Works like {@link TreeSet#descendingSet()} */
+    @NotNull
+    @Override
+    public PersistentTreap<E> descendingSet() {
+        return cachedDescendingSet;
+    }
+
+    /** Works like {@link TreeSet#first()} */
+    @Override
+    @Nullable
+    public E first() {
+        var node = version.root.get();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        while (first(node) != null) {
+            node = first(node);
+        }
+        return node.value;
+    }
+
+    /** Works like {@link TreeSet#last()} */
+    @Override
+    @Nullable
+    public E last() {
+        return cachedDescendingSet.first();
+    }
+
+    /** Returns the nearest element before the given one in the order of this view */
+    @Nullable
+    private E lowerBound(@Nullable Object e, boolean inclusive) {
+        var node = version.root.get();
+        E candidate = null;
+        while (node != null) {
+            int comparison = (reversed ? -1 : 1) * compare(node.value, e);
+            if (comparison < 0 || (comparison == 0 && inclusive)) {
+                candidate = node.value;
+                node = second(node);
+            } else {
+                node = first(node);
+            }
+        }
+        return candidate;
+    }
+
+    /** Works like {@link TreeSet#lower(Object)} */
+    @Override
+    @Nullable
+    public E lower(@Nullable E e) {
+        return lowerBound(e, false);
+    }
+
+    /** Works like {@link TreeSet#floor(Object)} */
+    @Override
+    @Nullable
+    public E floor(@Nullable E e) {
+        return lowerBound(e, true);
+    }
+
+    /** Works like {@link TreeSet#ceiling(Object)} */
+    @Override
+    @Nullable
+    public E ceiling(@Nullable E e) {
+        return cachedDescendingSet.floor(e);
+    }
+
+    /** Works like {@link TreeSet#higher(Object)} */
+    @Override
+    @Nullable
+    public E higher(@Nullable E e) {
+        return cachedDescendingSet.lower(e);
+    }
+
+    /** {@inheritDoc} It takes O(log n) time using sizes of subtrees */
+    @Override
+    @Nullable
+    public E get(int index) {
+        var node = version.root.get();
+        Objects.checkIndex(index, size(node));
+        while (true) {
+            int firstSize = size(first(node));
+            if (index < firstSize) {
+                node = first(node);
+            } else if (index == firstSize) {
+                return node.value;
+            } else {
+                index -= firstSize + 1;
+                node = second(node);
+            }
+        }
+    }
+
+    /** {@inheritDoc} It takes O(log n) time using sizes of subtrees */
+    @Override
+    public int indexOf(@Nullable E e) {
+        var node = version.root.get();
+        int index = 0;
+        while (node != null) {
+            int comparison = (reversed ? -1 : 1) * compare(node.value, e);
+            int firstSize = size(first(node));
+            if (comparison == 0) {
+                return index + firstSize;
+            }
+            if (comparison < 0) {
+                index += firstSize + 1;
+                node = second(node);
+            } else {
+                node = first(node);
+            }
+        }
+        return -1;
+    }
+
+    /** {@inheritDoc} Unlike {@link Treap#subList(int, int)}, the view keeps the version of its creation */
+    @NotNull
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        var root = version.root.get();
+        Objects.checkFromToIndex(fromIndex, toIndex, size(root));
+        var frozen = new PersistentTreap<E>(comparator, new Version<>(root, true));
+        var view = reversed ? frozen.cachedDescendingSet : frozen;
+        return new AbstractList<>() {
+            @Override
+            public E get(int index) {
+                Objects.checkIndex(index, size());
+                return view.get(fromIndex + index);
+            }
+
+            @Override
+            public int size() {
+                return toIndex - fromIndex;
+            }
+
+            @NotNull
+            @Override
+            public Iterator<E> iterator() {
+                return view.new TreapIterator(root, fromIndex, toIndex - fromIndex);
+            }
+        };
+    }
+
+    private class TreapIterator implements Iterator<E> {
+        private final @NotNull ArrayDeque<Node<E>> path = new ArrayDeque<>();
+        private int remaining;
+
+        /** Creates an iterator over the given number of elements starting from the given index */
+        private TreapIterator(@Nullable Node<E> node, int index, int remaining) {
+            this.remaining = remaining;
+            while (node != null && remaining > 0) {
+                int firstSize = size(first(node));
+                if (index < firstSize) {
+                    path.push(node);
+                    node = first(node);
+                } else if (index == firstSize) {
+                    path.push(node);
+                    return;
+                } else {
+                    index -= firstSize + 1;
+                    node = second(node);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 && !path.isEmpty();
+        }
+
+        @Override
+        @Nullable
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            var current = path.pop();
+            for (var node = second(current); node != null; node = first(node)) {
+                path.push(node);
+            }
+            return current.value;
+        }
+    }
+
+    /** The root shared by a set and its descending view */
+    private static class Version<E> {
+        private final @NotNull AtomicReference<Node<E>> root;
+        private final boolean frozen;
+
+        private Version(@Nullable Node<E> root, boolean frozen) {
+            this.root = new AtomicReference<>(root);
+            this.frozen = frozen;
+        }
+
+        private void checkModifiable() {
+            if (frozen) {
+                throw new UnsupportedOperationException("A snapshot can not be modified");
+            }
+        }
+    }
+
+    private static final class Node<E> {
+        private final @Nullable E value;
+        private final @Nullable Node<E> left;
+        private final @Nullable Node<E> right;
+        private final int priority;
+        private final int size;
+
+        private Node(@Nullable E value, @Nullable Node<E> left, @Nullable Node<E> right, int priority) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.priority = priority;
+            size = 1 + PersistentTreap.size(left) + PersistentTreap.size(right);
+        }
+    }
+}
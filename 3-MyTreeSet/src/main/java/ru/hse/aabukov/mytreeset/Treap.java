@@ -4,12 +4,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Works like {@link TreeSet}. Every modification and search operation is randomized
  * O(log n) time. Note that it does not contain some methods.
  */
 public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
     private @Nullable Comparator<? super E> comparator = null;
     private boolean reversed;
     private @NotNull CommonData data;
@@ -41,6 +44,45 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
         cachedDescendingSet = pairSet;
     }
 
+    /**
+     * Creates a set of the given elements in natural order. It takes linear time if the elements are
+     * sorted and O(n log n) time otherwise
+     */
+    @NotNull
+    public static <E> Treap<E> of(@NotNull Collection<? extends E> elements) {
+        var treap = new Treap<E>();
+        treap.build(elements.toArray(), false);
+        return treap;
+    }
+
+    /**
+     * Creates a set of the given elements ordered by the comparator. It takes linear time if the elements are
+     * sorted and O(n log n) time otherwise
+     */
+    @NotNull
+    public static <E> Treap<E> of(@NotNull Collection<? extends E> elements, @NotNull Comparator<? super E> comparator) {
+        var treap = new Treap<E>(comparator);
+        treap.build(elements.toArray(), false);
+        return treap;
+    }
+
+    /** Works like {@link #of(Collection)} but sorts unsorted elements with {@link Arrays#parallelSort} */
+    @NotNull
+    public static <E> Treap<E> parallelOf(@NotNull Collection<? extends E> elements) {
+        var treap = new Treap<E>();
+        treap.build(elements.toArray(), true);
+        return treap;
+    }
+
+    /** Works like {@link #of(Collection, Comparator)} but sorts unsorted elements with {@link Arrays#parallelSort} */
+    @NotNull
+    public static <E> Treap<E> parallelOf(@NotNull Collection<? extends E> elements,
+                                          @NotNull Comparator<? super E> comparator) {
+        var treap = new Treap<E>(comparator);
+        treap.build(elements.toArray(), true);
+        return treap;
+    }
+
     @SuppressWarnings("unchecked")
     private int compare(E a, Object b) {
         if (comparator == null) {
@@ -78,7 +120,7 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
     /** Works like {@link TreeSet#descendingSet() */
     @NotNull
     @Override
-    public MyTreeSet<E> descendingSet() {
+    public Treap<E> descendingSet() {
         return cachedDescendingSet;
     }
 
@@ -144,55 +186,264 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
         return cachedDescendingSet.lower(e);
     }
 
-    /** Works like {@link TreeSet#add(Object)} */
+    /** Returns the node with the given number of smaller elements in this view */
+    @NotNull
+    private Node nodeAt(int index) {
+        Node node = data.root;
+        while (true) {
+            node.adjustToDirection(reversed);
+            int leftSize = node.left == null ? 0 : node.left.size;
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /** {@inheritDoc} It takes O(log n) time using sizes of subtrees */
+    @Override
+    @Nullable
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        return nodeAt(index).value;
+    }
+
+    /** {@inheritDoc} It takes O(log n) time using sizes of subtrees */
+    @Override
+    public int indexOf(@Nullable E e) {
+        Node node = data.root;
+        int index = 0;
+        while (node != null) {
+            node.adjustToDirection(reversed);
+            int comparison = compare(node.value, e);
+            int leftSize = node.left == null ? 0 : node.left.size;
+            if (comparison == 0) {
+                return index + leftSize;
+            }
+            if (comparison < 0) {
+                index += leftSize + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return -1;
+    }
+
+    /** {@inheritDoc} Access by an index takes O(log n) time, iteration takes O(log n) time to find the start */
+    @NotNull
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size());
+        return new RankView(fromIndex, toIndex);
+    }
+
+    /**
+     * Works like {@link TreeSet#add(Object)}. The element is attached as a leaf in one descent
+     * and then rotated up while its priority is greater than the priority of its parent
+     */
     @Override
     public boolean add(@Nullable E e) {
-        if (contains(e)) {
-            return false;
+        Node parent = null;
+        var direction = Direction.ROOT;
+        Node node = data.root;
+        while (node != null) {
+            node.adjustToDirection(reversed);
+            int comparison = compare(node.value, e);
+            if (comparison == 0) {
+                return false;
+            }
+            parent = node;
+            direction = comparison < 0 ? Direction.RIGHT : Direction.LEFT;
+            node = comparison < 0 ? node.right : node.left;
         }
         invalidate();
-        var splitted = split(data.root, e);
-        var temp = merge(splitted.first, new Node(e));
-        data.root = merge(temp, splitted.second);
+        var inserted = new Node(e);
+        inserted.reversedNode = reversed;
+        link(parent, inserted, direction);
+        for (var ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size++;
+        }
+        while (inserted.parent != null && inserted.parent.priority < inserted.priority) {
+            rotateUp(inserted);
+        }
+        return true;
+    }
+
+    /**
+     * Works like {@link TreeSet#addAll(Collection)}. An empty set is built from the elements in linear time
+     * if they are sorted in the order of this view, otherwise they are sorted first
+     */
+    @Override
+    public boolean addAll(@NotNull Collection<? extends E> c) {
+        if (data.root != null || c.isEmpty()) {
+            return super.addAll(c);
+        }
+        build(c.toArray(), false);
         return true;
     }
 
+    /** Replaces the content of an empty set with the given elements, the array is reordered */
+    @SuppressWarnings("unchecked")
+    private void build(@NotNull Object[] elements, boolean parallel) {
+        int count = elements.length;
+        for (int i = 1; i < elements.length; i++) {
+            if (compare((E) elements[i - 1], elements[i]) >= 0) {
+                Comparator<Object> order = (a, b) -> compare((E) a, b);
+                if (parallel) {
+                    Arrays.parallelSort(elements, order);
+                } else {
+                    Arrays.sort(elements, order);
+                }
+                count = removeDuplicates(elements);
+                break;
+            }
+        }
+        if (count > 0) {
+            invalidate();
+        }
+        data.root = buildFromSorted(elements, count);
+    }
+
+    /** Moves distinct elements of a sorted array to its beginning and returns their number */
+    @SuppressWarnings("unchecked")
+    private int removeDuplicates(@NotNull Object[] elements) {
+        int count = 0;
+        for (var element : elements) {
+            if (count == 0 || compare((E) elements[count - 1], element) != 0) {
+                elements[count++] = element;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builds a treap of strictly increasing elements in linear time. The stack keeps the right spine
+     * of the treap built so far, a new element is the rightmost node: it takes the nodes of the spine
+     * with lower priorities as its left subtree and becomes the right child of the rest
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private Node buildFromSorted(@NotNull Object[] elements, int count) {
+        var spine = new ArrayDeque<Node>();
+        for (int i = 0; i < count; i++) {
+            var node = new Node((E) elements[i]);
+            node.reversedNode = reversed;
+            Node lastPopped = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                lastPopped = spine.pop();
+                lastPopped.update();
+            }
+            link(node, lastPopped, Direction.LEFT);
+            if (!spine.isEmpty()) {
+                link(spine.peek(), node, Direction.RIGHT);
+            }
+            spine.push(node);
+        }
+        Node root = null;
+        while (!spine.isEmpty()) {
+            root = spine.pop();
+            root.update();
+        }
+        return root;
+    }
+
+    /** Works like {@link TreeSet#clear()} */
+    @Override
+    public void clear() {
+        if (data.root != null) {
+            invalidate();
+            data.root = null;
+        }
+    }
+
     /** Works like {@link TreeSet#contains(Object)} */
     @Override
     public boolean contains(@Nullable Object o) {
+        return find(o) != null;
+    }
+
+    @Nullable
+    private Node find(@Nullable Object o) {
         Node node = data.root;
         while (node != null) {
             node.adjustToDirection(reversed);
-            if (compare(node.value, o) < 0) {
-                node = node.right;
-            } else if (compare(node.value, o) == 0) {
-                return true;
-            } else {
-                node = node.left;
+            int comparison = compare(node.value, o);
+            if (comparison == 0) {
+                return node;
             }
+            node = comparison < 0 ? node.right : node.left;
         }
-        return false;
+        return null;
     }
 
-    /** Works like {@link TreeSet#contains(Object)} */
+    /**
+     * Works like {@link TreeSet#remove(Object)}. The node of the element is found in one descent
+     * and replaced with the merge of its subtrees
+     */
     @Override
     public boolean remove(@Nullable Object o) {
-        if (!contains(o)) {
+        var node = find(o);
+        if (node == null) {
             return false;
         }
         invalidate();
-        if (compare(first(), o) == 0) {
-            var splitted = split(data.root, o);
-            data.root = splitted.second;
-        } else {
-            E pred = lowerBound(o, false);
-            var left = split(data.root, pred).first;
-            var right = split(data.root, o).second;
-            data.root = merge(left, right);
+        var parent = node.parent;
+        var replacement = merge(node.left, node.right);
+        if (replacement != null) {
+            replacement.adjustToDirection(reversed);
+        }
+        link(parent, replacement, node.direction);
+        for (var ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size--;
         }
         return true;
     }
 
+    /** Makes the child a child of the parent from the given side or the root if there is no parent */
+    private void link(@Nullable Node parent, @Nullable Node child, @NotNull Direction direction) {
+        if (child != null) {
+            child.parent = parent;
+            child.direction = direction;
+        }
+        if (parent == null) {
+            data.root = child;
+        } else if (direction == Direction.LEFT) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+    }
+
+    /** Moves the node to the place of its parent, the node and its ancestors must be adjusted to this view */
+    private void rotateUp(@NotNull Node node) {
+        var parent = node.parent;
+        var grandparent = parent.parent;
+        var parentDirection = parent.direction;
+        if (node.direction == Direction.LEFT) {
+            var inner = node.right;
+            if (inner != null) {
+                inner.adjustToDirection(reversed);
+            }
+            link(parent, inner, Direction.LEFT);
+            link(node, parent, Direction.RIGHT);
+        } else {
+            var inner = node.left;
+            if (inner != null) {
+                inner.adjustToDirection(reversed);
+            }
+            link(parent, inner, Direction.RIGHT);
+            link(node, parent, Direction.LEFT);
+        }
+        link(grandparent, node, parentDirection);
+        parent.update();
+        node.update();
+    }
+
     @Nullable
     private Node merge(@Nullable Node left, @Nullable Node right) {
         if (left == null) {
@@ -220,32 +471,201 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
         }
     }
 
-    @NotNull
-    private Pair split(@Nullable Node node, @Nullable Object element) {
-        if (node == null) {
-            return new Pair(null, null);
+    /**
+     * Adds all elements of the other set to this one. The nodes of the other set are moved into this one
+     * and the other set becomes empty. If both sets have the same order, it takes O(m log(n / m + 1)) expected
+     * time for sizes m <= n, and parts of sets above a threshold size are processed in parallel
+     * on {@link ForkJoinPool#commonPool()}. Of equal elements the one from this set is kept
+     *
+     * @return true if this set changed
+     */
+    public boolean unionConsuming(@NotNull Treap<E> other) {
+        return apply(Operation.UNION, other);
+    }
+
+    /**
+     * Retains only elements of this set that are contained in the other set. The other set becomes empty.
+     * It takes the same time as {@link #unionConsuming(Treap)}
+     *
+     * @return true if this set changed
+     */
+    public boolean intersectionConsuming(@NotNull Treap<E> other) {
+        return apply(Operation.INTERSECTION, other);
+    }
+
+    /**
+     * Removes all elements of the other set from this set. The other set becomes empty.
+     * It takes the same time as {@link #unionConsuming(Treap)}
+     *
+     * @return true if this set changed
+     */
+    public boolean differenceConsuming(@NotNull Treap<E> other) {
+        return apply(Operation.DIFFERENCE, other);
+    }
+
+    private boolean apply(@NotNull Operation operation, @NotNull Treap<E> other) {
+        if (other.data == data) {
+            if (operation != Operation.DIFFERENCE || data.root == null) {
+                return false;
+            }
+            clear();
+            return true;
         }
-        node.adjustToDirection(reversed);
-        if (compare(node.value, element) <= 0) {
-            var splitted = split(node.right, element);
-            node.right = splitted.first;
-            if (node.right != null) {
-                node.right.parent = node;
-                node.right.direction = Direction.RIGHT;
+        int oldSize = size();
+        if (!Objects.equals(comparator, other.comparator) || reversed != other.reversed) {
+            applyElementwise(operation, other);
+        } else {
+            var first = data.root;
+            var second = other.data.root;
+            other.clear();
+            Node result;
+            if (size(first) + size(second) < PARALLEL_THRESHOLD) {
+                result = apply(operation, first, second);
+            } else {
+                result = ForkJoinPool.commonPool().invoke(new SetOperation(operation, first, second));
             }
-            node.direction = Direction.ROOT;
-            node.update();
-            return new Pair(node, splitted.second);
+            if (result != null) {
+                result.adjustToDirection(reversed);
+            }
+            if (second != null || result != first) {
+                invalidate();
+            }
+            link(null, result, Direction.ROOT);
+        }
+        return size() != oldSize;
+    }
+
+    /** Used when the sets are ordered differently, so the structure of the other set is of no use */
+    private void applyElementwise(@NotNull Operation operation, @NotNull Treap<E> other) {
+        if (operation == Operation.UNION) {
+            addAll(other);
         } else {
-            var splitted = split(node.left, element);
-            node.left = splitted.second;
-            if (node.left != null) {
-                node.left.parent = node;
-                node.left.direction = Direction.LEFT;
+            var kept = new ArrayList<E>();
+            for (var element : this) {
+                if (other.contains(element) == (operation == Operation.INTERSECTION)) {
+                    kept.add(element);
+                }
+            }
+            if (kept.size() != size()) {
+                clear();
+                addAll(kept);
             }
-            node.direction = Direction.ROOT;
-            node.update();
-            return new Pair(splitted.first, node);
+        }
+        other.clear();
+    }
+
+    private int size(@Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Applies the operation to treaps of this set and of the other one. The root of the first treap splits
+     * the second one, the operation is applied to the halves recursively and the results are joined
+     * by the root or merged if it is dropped. For a union the root with the greater priority is taken,
+     * so the joined treap keeps the heap order, but the halves are still passed in the order of the sets
+     * and an element of this set is kept at every level. Other operations keep only nodes of the first treap
+     */
+    @Nullable
+    private Node apply(@NotNull Operation operation, @Nullable Node first, @Nullable Node second) {
+        if (first == null || second == null) {
+            return operation == Operation.UNION ? (first == null ? second : first)
+                    : operation == Operation.DIFFERENCE ? first : null;
+        }
+        first.adjustToDirection(reversed);
+        second.adjustToDirection(reversed);
+        boolean swapped = operation == Operation.UNION && first.priority < second.priority;
+        var root = swapped ? second : first;
+        var halves = new Split();
+        split(swapped ? first : second, root.value, halves);
+        if (swapped && halves.found != null) {
+            root.value = halves.found.value;
+        }
+        var firstLeft = swapped ? halves.left : root.left;
+        var firstRight = swapped ? halves.right : root.right;
+        var secondLeft = swapped ? root.left : halves.left;
+        var secondRight = swapped ? root.right : halves.right;
+        Node left;
+        Node right;
+        if (size(root) + size(halves.left) + size(halves.right) >= PARALLEL_THRESHOLD) {
+            var task = new SetOperation(operation, firstLeft, secondLeft);
+            task.fork();
+            right = apply(operation, firstRight, secondRight);
+            left = task.join();
+        } else {
+            left = apply(operation, firstLeft, secondLeft);
+            right = apply(operation, firstRight, secondRight);
+        }
+        boolean keepRoot = operation == Operation.UNION || (operation == Operation.INTERSECTION) == (halves.found != null);
+        if (!keepRoot) {
+            return merge(left, right);
+        }
+        adopt(root, left, Direction.LEFT);
+        adopt(root, right, Direction.RIGHT);
+        root.direction = Direction.ROOT;
+        root.update();
+        return root;
+    }
+
+    /** Makes the child a child of the parent after adjusting the child to this view */
+    private void adopt(@NotNull Node parent, @Nullable Node child, @NotNull Direction direction) {
+        if (child != null) {
+            child.adjustToDirection(reversed);
+        }
+        link(parent, child, direction);
+    }
+
+    /** Splits the treap into elements less and greater than the given one and finds the equal one */
+    private void split(@Nullable Node node, @Nullable Object element, @NotNull Split result) {
+        if (node == null) {
+            return;
+        }
+        node.adjustToDirection(reversed);
+        int comparison = compare(node.value, element);
+        if (comparison == 0) {
+            result.found = node;
+            result.left = node.left;
+            result.right = node.right;
+            return;
+        }
+        if (comparison < 0) {
+            split(node.right, element, result);
+            adopt(node, result.left, Direction.RIGHT);
+            result.left = node;
+        } else {
+            split(node.left, element, result);
+            adopt(node, result.right, Direction.LEFT);
+            result.right = node;
+        }
+        node.update();
+    }
+
+    private enum Operation {
+        UNION,
+        INTERSECTION,
+        DIFFERENCE
+    }
+
+    private class Split {
+        private @Nullable Node left;
+        private @Nullable Node right;
+        private @Nullable Node found;
+    }
+
+    private class SetOperation extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+        private final @NotNull Operation operation;
+        private final @Nullable Node first;
+        private final @Nullable Node second;
+
+        private SetOperation(@NotNull Operation operation, @Nullable Node first, @Nullable Node second) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        protected Node compute() {
+            return apply(operation, first, second);
         }
     }
 
@@ -270,17 +690,17 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
     private class TreapIterator implements Iterator<E> {
         private @Nullable Node pointer;
         private @NotNull InvalidationMark invalidationMark;
+        private int remaining;
 
         private TreapIterator() {
+            this(data.root == null ? null : nodeAt(0), Integer.MAX_VALUE);
+        }
+
+        /** Creates an iterator over at most the given number of elements starting from the given node */
+        private TreapIterator(@Nullable Node start, int remaining) {
             invalidationMark = data.invalidationMark;
-            pointer = data.root;
-            if (pointer != null) {
-                pointer.adjustToDirection(reversed);
-            }
-            while (pointer != null && pointer.left != null) {
-                pointer = pointer.left;
-                pointer.adjustToDirection(reversed);
-            }
+            pointer = start;
+            this.remaining = remaining;
         }
 
         @Nullable
@@ -307,7 +727,7 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
             if (invalidationMark.invalid) {
                 throw new ConcurrentModificationException();
             }
-            return pointer != null;
+            return pointer != null && remaining > 0;
         }
 
         @Override
@@ -317,14 +737,54 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
                 throw new ConcurrentModificationException();
             }
             Node previous = pointer;
-            if (pointer == null) {
+            if (pointer == null || remaining == 0) {
                 throw new NoSuchElementException();
             }
-            pointer = tryNext(pointer);
+            remaining--;
+            pointer = remaining == 0 ? null : tryNext(pointer);
             return previous.value;
         }
     }
 
+    /** Elements with ranks in a fixed range, it is invalidated by modifications of the set */
+    private class RankView extends AbstractList<E> {
+        private final int fromIndex;
+        private final int toIndex;
+        private final @NotNull InvalidationMark invalidationMark = data.invalidationMark;
+
+        private RankView(int fromIndex, int toIndex) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        private void checkValid() {
+            if (invalidationMark.invalid) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        @Nullable
+        public E get(int index) {
+            checkValid();
+            Objects.checkIndex(index, size());
+            return Treap.this.get(fromIndex + index);
+        }
+
+        @Override
+        public int size() {
+            checkValid();
+            return toIndex - fromIndex;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<E> iterator() {
+            checkValid();
+            return new TreapIterator(fromIndex == toIndex ? null : nodeAt(fromIndex), toIndex - fromIndex);
+        }
+    }
+
     private class CommonData {
         private @NotNull Random rand = new Random();
         private @Nullable Node root;
@@ -372,14 +832,4 @@ public class Treap<E> extends AbstractSet<E> implements MyTreeSet<E> {
     private class InvalidationMark {
         private boolean invalid = false;
     }
-
-    private class Pair {
-        private @Nullable Node first;
-        private @Nullable Node second;
-
-        Pair(@Nullable Node first, @Nullable Node second) {
-            this.first = first;
-            this.second = second;
-        }
-    }
 }
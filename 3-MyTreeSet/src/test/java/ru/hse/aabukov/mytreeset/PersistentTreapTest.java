@@ -0,0 +1,155 @@
+package ru.hse.aabukov.mytreeset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTreapTest {
+
+    PersistentTreap<Integer> numbers(int bound) {
+        var treap = new PersistentTreap<Integer>();
+        for (int i = 0; i < bound; i++) {
+            treap.add(i);
+        }
+        return treap;
+    }
+
+    @Test
+    void queries() {
+        var treap = numbers(10);
+        var descending = treap.descendingSet();
+        assertEquals(10, treap.size());
+        assertTrue(treap.contains(3));
+        assertFalse(treap.contains(10));
+        assertFalse(treap.add(3));
+        assertEquals(Integer.valueOf(0), treap.first());
+        assertEquals(Integer.valueOf(9), treap.last());
+        assertEquals(Integer.valueOf(9), descending.first());
+        assertEquals(Integer.valueOf(4), treap.lower(5));
+        assertEquals(Integer.valueOf(6), descending.lower(5));
+        assertEquals(Integer.valueOf(5), treap.floor(5));
+        assertEquals(Integer.valueOf(6), treap.higher(5));
+        assertEquals(Integer.valueOf(4), descending.higher(5));
+        assertNull(treap.lower(0));
+        assertNull(descending.ceiling(-1));
+        assertEquals(Integer.valueOf(2), treap.get(2));
+        assertEquals(Integer.valueOf(7), descending.get(2));
+        assertEquals(7, descending.indexOf(2));
+        assertEquals(-1, treap.indexOf(20));
+        assertEquals(Arrays.asList(3, 4, 5), treap.subList(3, 6));
+        assertEquals(Arrays.asList(6, 5, 4), descending.subList(3, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.get(10));
+        assertThrows(NoSuchElementException.class, () -> new PersistentTreap<Integer>().first());
+
+        var byLength = new PersistentTreap<String>(Comparator.comparing(String::length));
+        byLength.add("ccc");
+        byLength.add("a");
+        assertFalse(byLength.add("b"));
+        assertEquals(Arrays.asList("a", "ccc"), new ArrayList<>(byLength));
+        assertEquals(Arrays.asList("ccc", "a"), new ArrayList<>(byLength.descendingSet()));
+    }
+
+    @Test
+    void snapshotsKeepTheirVersions() {
+        var treap = numbers(10);
+        var snapshot = treap.snapshot();
+        var descendingSnapshot = treap.descendingSet().snapshot();
+        var iterator = treap.iterator();
+        var page = treap.subList(0, 3);
+        treap.remove(0);
+        treap.remove(1);
+        treap.add(100);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), new ArrayList<>(snapshot));
+        assertEquals(Integer.valueOf(9), descendingSnapshot.first());
+        assertEquals(Arrays.asList(0, 1, 2), page);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9, 100), new ArrayList<>(treap));
+        assertTrue(snapshot.contains(0));
+        assertFalse(snapshot.contains(100));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(11));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.descendingSet().remove(1));
+        assertEquals(10, snapshot.snapshot().size());
+    }
+
+    @Test
+    void randomOperationsWithVersions() {
+        var random = new Random(3);
+        var treap = new PersistentTreap<Integer>();
+        var expected = new TreeSet<Integer>();
+        var snapshots = new ArrayList<PersistentTreap<Integer>>();
+        var expectedSnapshots = new ArrayList<List<Integer>>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(1000);
+            var view = random.nextBoolean() ? treap : treap.descendingSet();
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), view.remove(value));
+            } else {
+                assertEquals(expected.add(value), view.add(value));
+            }
+            if (i % 2000 == 0) {
+                snapshots.add(treap.snapshot());
+                expectedSnapshots.add(new ArrayList<>(expected));
+            }
+        }
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(treap));
+        for (int value = 0; value < 1000; value++) {
+            assertEquals(expected.lower(value), treap.lower(value));
+            assertEquals(expected.ceiling(value), treap.ceiling(value));
+            assertEquals(expected.contains(value) ? expected.headSet(value).size() : -1, treap.indexOf(value));
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(expectedSnapshots.get(i), new ArrayList<>(snapshots.get(i)));
+        }
+    }
+
+    @Test
+    void readersOfSnapshotsDuringWrites() throws InterruptedException {
+        var treap = numbers(1000);
+        var stop = new AtomicBoolean();
+        var failed = new AtomicBoolean();
+        var reader = new Thread(() -> {
+            try {
+                while (!stop.get()) {
+                    var snapshot = treap.snapshot();
+                    int size = snapshot.size();
+                    int count = 0;
+                    Integer previous = null;
+                    for (var element : snapshot) {
+                        assertTrue(previous == null || previous < element);
+                        previous = element;
+                        count++;
+                    }
+                    assertEquals(size, count);
+                }
+            } catch (Throwable e) {
+                e.printStackTrace();
+                failed.set(true);
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 1000; i += 2) {
+                treap.remove(i);
+            }
+            for (int i = 0; i < 1000; i += 2) {
+                treap.add(i);
+            }
+        }
+        stop.set(true);
+        reader.join();
+        assertFalse(failed.get());
+        assertEquals(1000, treap.size());
+    }
+}
@@ -4,9 +4,15 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -194,4 +200,295 @@ class TreapTest {
         assertThrows(ConcurrentModificationException.class, it::hasNext);
     }
 
-}
\ No newline at end of file
+    @Test
+    void randomOperationsThroughBothViews() {
+        var random = new Random(17);
+        var treap = new Treap<Integer>();
+        var descending = treap.descendingSet();
+        var expected = new TreeSet<Integer>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(1000);
+            var view = random.nextBoolean() ? treap : descending;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), view.remove(value));
+            } else {
+                assertEquals(expected.add(value), view.add(value));
+            }
+            assertEquals(expected.size(), view.size());
+            if (i % 1000 == 0) {
+                assertEquals(new ArrayList<>(expected), new ArrayList<>(treap));
+                assertEquals(new ArrayList<>(expected.descendingSet()), new ArrayList<>(descending));
+            }
+        }
+        for (int value = 0; value < 1000; value++) {
+            assertEquals(expected.contains(value), treap.contains(value));
+            assertEquals(expected.lower(value), treap.lower(value));
+            assertEquals(expected.higher(value), descending.lower(value));
+        }
+    }
+
+    @Test
+    void get() {
+        var treap = new Treap<Integer>();
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.get(0));
+        for (int i = 0; i < 100; i++) {
+            treap.add(i * 2);
+        }
+        var descending = treap.descendingSet();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i * 2), treap.get(i));
+            assertEquals(Integer.valueOf(198 - i * 2), descending.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.get(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> descending.get(-1));
+    }
+
+    @Test
+    void indexOf() {
+        var treap = new Treap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            treap.add(i * 2);
+        }
+        var descending = treap.descendingSet();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, treap.indexOf(i * 2));
+            assertEquals(99 - i, descending.indexOf(i * 2));
+            assertEquals(-1, treap.indexOf(i * 2 + 1));
+            assertEquals(-1, descending.indexOf(i * 2 + 1));
+        }
+        treap.remove(50);
+        assertEquals(25, treap.indexOf(52));
+        assertEquals(73, descending.indexOf(52));
+    }
+
+    @Test
+    void subList() {
+        var treap = numbers(10);
+        var descending = treap.descendingSet();
+        assertEquals(Arrays.asList(3, 4, 5), treap.subList(3, 6));
+        assertEquals(Arrays.asList(6, 5, 4), descending.subList(3, 6));
+        assertEquals(Arrays.asList(9), descending.subList(0, 1));
+        assertTrue(treap.subList(10, 10).isEmpty());
+        assertFalse(treap.subList(0, 0).iterator().hasNext());
+        assertEquals(Integer.valueOf(8), treap.subList(7, 10).get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.subList(7, 10).get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.subList(5, 11));
+        assertThrows(IndexOutOfBoundsException.class, () -> treap.subList(6, 5));
+        assertThrows(UnsupportedOperationException.class, () -> treap.subList(0, 2).add(100));
+
+        var page = treap.subList(2, 4);
+        var iterator = page.iterator();
+        assertEquals(Integer.valueOf(2), iterator.next());
+        assertEquals(Integer.valueOf(3), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        treap.add(100);
+        assertThrows(ConcurrentModificationException.class, page::size);
+        assertThrows(ConcurrentModificationException.class, () -> page.get(0));
+    }
+
+    private static void assertSameAs(TreeSet<Integer> expected, MyTreeSet<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        int index = 0;
+        for (var element : expected) {
+            assertEquals(element, actual.get(index));
+            assertEquals(index, actual.indexOf(element));
+            index++;
+        }
+    }
+
+    @Test
+    void ofSorted() {
+        var sorted = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            sorted.add(i * 3);
+        }
+        var treap = Treap.of(sorted);
+        assertSameAs(new TreeSet<>(sorted), treap);
+        assertTrue(treap.add(1));
+        assertTrue(treap.remove(300));
+        assertFalse(treap.contains(300));
+        assertEquals(Integer.valueOf(1), treap.get(1));
+
+        var descending = Treap.of(sorted, Comparator.reverseOrder());
+        assertEquals(Integer.valueOf(2997), descending.first());
+        assertEquals(Integer.valueOf(0), descending.last());
+        assertEquals(1000, descending.size());
+        assertEquals(0, Treap.of(Collections.<Integer>emptyList()).size());
+    }
+
+    @Test
+    void ofUnsorted() {
+        var random = new Random(5);
+        var elements = new ArrayList<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            elements.add(random.nextInt(2000));
+        }
+        var expected = new TreeSet<>(elements);
+        assertSameAs(expected, Treap.of(elements));
+        var parallel = Treap.parallelOf(elements);
+        assertSameAs(expected, parallel);
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(expected.remove(i), parallel.remove(i));
+            if (i % 3 == 0) {
+                assertEquals(expected.add(-i), parallel.add(-i));
+            }
+        }
+        assertSameAs(expected, parallel);
+    }
+
+    @Test
+    void addAll() {
+        var treap = new Treap<Integer>();
+        var descending = treap.descendingSet();
+        assertFalse(descending.addAll(Collections.emptyList()));
+        assertTrue(descending.addAll(List.of(1, 2, 3, 4, 5, 3)));
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), new ArrayList<>(descending));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), new ArrayList<>(treap));
+        assertFalse(treap.addAll(List.of(1, 5)));
+        assertTrue(treap.addAll(List.of(0, 6)));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), new ArrayList<>(treap));
+        assertEquals(2, descending.indexOf(4));
+
+        var iterator = treap.iterator();
+        var empty = new Treap<Integer>();
+        var emptyIterator = empty.iterator();
+        empty.addAll(List.of(1, 2));
+        assertThrows(ConcurrentModificationException.class, emptyIterator::hasNext);
+        assertDoesNotThrow(iterator::next);
+    }
+
+    private static TreeSet<Integer> randomElements(Random random, int count, int bound) {
+        var elements = new TreeSet<Integer>();
+        for (int i = 0; i < count; i++) {
+            elements.add(random.nextInt(bound));
+        }
+        return elements;
+    }
+
+    private static void checkSetOperations(int firstCount, int secondCount, int bound) {
+        var random = new Random(firstCount + secondCount);
+        var first = randomElements(random, firstCount, bound);
+        var second = randomElements(random, secondCount, bound);
+
+        var union = new TreeSet<>(first);
+        union.addAll(second);
+        var treap = Treap.of(first);
+        var other = Treap.of(second);
+        assertEquals(!union.equals(first), treap.unionConsuming(other));
+        assertSameAs(union, treap);
+        assertEquals(0, other.size());
+
+        var intersection = new TreeSet<>(first);
+        intersection.retainAll(second);
+        treap = Treap.of(first);
+        assertEquals(!intersection.equals(first), treap.intersectionConsuming(Treap.of(second)));
+        assertSameAs(intersection, treap);
+
+        var difference = new TreeSet<>(first);
+        difference.removeAll(second);
+        treap = Treap.of(first);
+        assertEquals(!difference.equals(first), treap.differenceConsuming(Treap.of(second)));
+        assertSameAs(difference, treap);
+        for (int i = 0; i < bound; i += 7) {
+            assertEquals(difference.add(i), treap.add(i));
+            assertEquals(difference.remove(i + 1), treap.remove(i + 1));
+        }
+        assertSameAs(difference, treap);
+    }
+
+    @Test
+    void setOperations() {
+        checkSetOperations(0, 0, 10);
+        checkSetOperations(100, 0, 200);
+        checkSetOperations(0, 100, 200);
+        checkSetOperations(300, 200, 400);
+        checkSetOperations(20, 1000, 3000);
+    }
+
+    @Test
+    void parallelSetOperations() {
+        checkSetOperations(50000, 40000, 100000);
+        checkSetOperations(100000, 500, 1000000);
+    }
+
+    private static List<String> keys(String prefix, int count) {
+        var keys = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            keys.add(prefix + i);
+        }
+        return keys;
+    }
+
+    @Test
+    void setOperationsKeepElementsOfThisSet() {
+        for (int count : new int[]{50, 20000}) {
+            for (int round = 0; round < 20; round++) {
+                var treap = Treap.of(keys("k", count), String.CASE_INSENSITIVE_ORDER);
+                var other = Treap.of(keys("K", 2 * count), String.CASE_INSENSITIVE_ORDER);
+                treap.unionConsuming(other);
+                assertEquals(2 * count, treap.size());
+                for (var element : treap) {
+                    int index = Integer.parseInt(element.substring(1));
+                    assertEquals(index < count ? "k" : "K", element.substring(0, 1));
+                }
+
+                treap = Treap.of(keys("k", count), String.CASE_INSENSITIVE_ORDER);
+                treap.intersectionConsuming(Treap.of(keys("K", count / 2), String.CASE_INSENSITIVE_ORDER));
+                assertEquals(count / 2, treap.size());
+                for (var element : treap) {
+                    assertTrue(element.startsWith("k"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void setOperationsConsumeArgument() {
+        var arguments = new ArrayList<Treap<Integer>>();
+        var treap = numbers(10);
+        arguments.add(Treap.of(List.of(5, 15)));
+        treap.unionConsuming(arguments.get(0));
+        arguments.add(Treap.of(List.of(1, 2, 3)));
+        treap.intersectionConsuming(arguments.get(1));
+        arguments.add(Treap.of(List.of(2)));
+        treap.differenceConsuming(arguments.get(2));
+        arguments.add(Treap.of(List.of(3, 4), Comparator.reverseOrder()));
+        treap.unionConsuming(arguments.get(3));
+        arguments.add(Treap.of(List.of(4), Comparator.reverseOrder()));
+        treap.differenceConsuming(arguments.get(4));
+        assertEquals(Arrays.asList(1, 3), new ArrayList<>(treap));
+        for (var argument : arguments) {
+            assertEquals(0, argument.size());
+            assertTrue(argument.isEmpty());
+            assertFalse(argument.iterator().hasNext());
+            assertTrue(argument.add(7));
+            assertEquals(List.of(7), new ArrayList<>(argument));
+        }
+    }
+
+    @Test
+    void setOperationsOnViews() {
+        var treap = numbers(10);
+        var other = numbers(15);
+        other.removeAll(List.of(0, 1, 2));
+        var descending = treap.descendingSet();
+        var iterator = treap.iterator();
+        assertTrue(descending.unionConsuming(other.descendingSet()));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertEquals(0, other.size());
+        assertEquals(Arrays.asList(14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0), new ArrayList<>(descending));
+
+        var ascending = numbers(5);
+        assertTrue(descending.intersectionConsuming(ascending));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), new ArrayList<>(treap));
+        assertTrue(treap.differenceConsuming(Treap.of(List.of(1, 3), Comparator.reverseOrder())));
+        assertEquals(Arrays.asList(0, 2, 4), new ArrayList<>(treap));
+
+        assertFalse(treap.unionConsuming(treap));
+        assertFalse(treap.intersectionConsuming(treap.descendingSet()));
+        assertTrue(treap.differenceConsuming(treap));
+        assertEquals(0, treap.size());
+    }
+}